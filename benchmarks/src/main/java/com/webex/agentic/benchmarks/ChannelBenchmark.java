@@ -0,0 +1,71 @@
+package com.webex.agentic.benchmarks;
+
+import com.google.protobuf.Empty;
+import com.webex.agentic.gateway.grpc.DefaultChannelFactory;
+import com.webex.agentic.gateway.service.WorkerChannelPool;
+import com.webex.agentic.plugin.add.service.AddPluginService;
+import com.webex.agentic.proto.ppp.InitResponse;
+import com.webex.agentic.proto.ppp.ToolPluginGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a fresh plaintext channel per call vs a channel leased from {@link WorkerChannelPool},
+ * each making one Health call to the add plugin over loopback TCP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChannelBenchmark {
+
+    private Server server;
+    private String target;
+    private WorkerChannelPool channelPool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = ServerBuilder.forPort(0)
+            .addService(new AddPluginService())
+            .build()
+            .start();
+        target = "localhost:" + server.getPort();
+        channelPool = new WorkerChannelPool(new DefaultChannelFactory(),
+            Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofMinutes(5));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channelPool.shutdown();
+        server.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public InitResponse newChannelPerCall() throws InterruptedException {
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(target)
+            .usePlaintext()
+            .directExecutor()
+            .build();
+        try {
+            return ToolPluginGrpc.newBlockingStub(channel).health(Empty.getDefaultInstance());
+        } finally {
+            channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public InitResponse pooledChannel() {
+        try (WorkerChannelPool.Lease lease = channelPool.acquire(target)) {
+            return ToolPluginGrpc.newBlockingStub(lease.channel()).health(Empty.getDefaultInstance());
+        }
+    }
+}
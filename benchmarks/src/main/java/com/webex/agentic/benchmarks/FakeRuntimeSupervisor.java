@@ -0,0 +1,45 @@
+package com.webex.agentic.benchmarks;
+
+import com.webex.agentic.proto.supervisor.*;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Supervisor stand-in that admits every allocation straight onto one always-ready worker,
+ * so benchmarks measure the gateway and PPP path without scheduling or container startup.
+ */
+final class FakeRuntimeSupervisor extends RuntimeSupervisorGrpc.RuntimeSupervisorImplBase {
+
+    private final String workerId;
+
+    FakeRuntimeSupervisor(String workerId) {
+        this.workerId = workerId;
+    }
+
+    @Override
+    public void allocateWorker(AllocateWorkerRequest request, StreamObserver<AllocateWorkerResponse> responseObserver) {
+        responseObserver.onNext(AllocateWorkerResponse.newBuilder()
+            .setAdmission(Admission.newBuilder().setStatus(Admission.Status.ADMITTED))
+            .setHandle(WorkerHandle.newBuilder()
+                .setWorkerId(workerId)
+                .setRuntime(request.getPlugin().getLanguage()))
+            .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void releaseWorker(ReleaseWorkerRequest request, StreamObserver<ReleaseWorkerResponse> responseObserver) {
+        responseObserver.onNext(ReleaseWorkerResponse.newBuilder()
+            .setWorkerId(request.getWorkerId())
+            .setTerminated(false)
+            .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void health(HealthRequest request, StreamObserver<HealthResponse> responseObserver) {
+        responseObserver.onNext(HealthResponse.newBuilder()
+            .setStatus(HealthResponse.Status.OK)
+            .build());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,146 @@
+package com.webex.agentic.benchmarks;
+
+import com.google.protobuf.Empty;
+import com.webex.agentic.common.concurrent.VirtualThreads;
+import com.webex.agentic.plugin.add.service.AddPluginService;
+import com.webex.agentic.proto.ppp.InitResponse;
+import com.webex.agentic.proto.ppp.ToolPluginGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gRPC handler threading under blocking load, as on the supervisor (docker forks, sleeps) and the
+ * gateway's in-process plugins. Each call blocks its handler for {@code blockMillis} before the
+ * add plugin answers Health. Handlers run on a fixed pool, on gRPC's default cached pool (today's
+ * model), or on a virtual thread per call; {@code virtual} needs a Java 21 runtime.
+ *
+ * SampleTime reports the per-call latency distribution (p99) for 256 concurrent callers. The most
+ * handlers blocked at once per iteration is reported as the {@code maxHandlersInFlight} secondary
+ * result; the Throughput run carries it, as JMH records auxiliary counters in that mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(256)
+public class HandlerThreadsBenchmark {
+
+    private static final int FIXED_POOL_THREADS = 32;
+
+    @Param({"fixed", "cached", "virtual"})
+    public String handlers;
+
+    @Param({"5"})
+    public int blockMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicBoolean reporterClaimed = new AtomicBoolean();
+    private ExecutorService executor;
+    private Server server;
+    private ManagedChannel channel;
+    private ToolPluginGrpc.ToolPluginBlockingStub stub;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        executor = switch (handlers) {
+            case "fixed" -> Executors.newFixedThreadPool(FIXED_POOL_THREADS, VirtualThreads.factory("grpc-handler", false));
+            case "cached" -> VirtualThreads.newPerTaskExecutor("grpc-handler", false);
+            case "virtual" -> {
+                if (!VirtualThreads.isSupported()) {
+                    throw new IllegalStateException("handlers=virtual needs a Java 21 runtime");
+                }
+                yield VirtualThreads.newPerTaskExecutor("grpc-handler", true);
+            }
+            default -> throw new IllegalArgumentException("Unknown handlers: " + handlers);
+        };
+
+        String name = "handler-threads-" + handlers;
+        server = InProcessServerBuilder.forName(name)
+            .executor(executor)
+            .addService(ServerInterceptors.intercept(new AddPluginService(), new BlockingInterceptor()))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name)
+            .directExecutor()
+            .build();
+        stub = ToolPluginGrpc.newBlockingStub(channel);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetInFlight() {
+        maxInFlight.set(0);
+        reporterClaimed.set(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public InitResponse blockingCall(InFlight counters) {
+        InitResponse response = stub.health(Empty.getDefaultInstance());
+        if (counters.reporter) {
+            counters.maxHandlersInFlight = maxInFlight.get();
+        }
+        return response;
+    }
+
+    /**
+     * Per-thread JMH counters. JMH sums them over threads, so one thread per iteration reports
+     * the benchmark-wide maximum and the others report zero.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class InFlight {
+
+        public int maxHandlersInFlight;
+        private boolean reporter;
+
+        @Setup(Level.Iteration)
+        public void claim(HandlerThreadsBenchmark benchmark) {
+            maxHandlersInFlight = 0;
+            reporter = benchmark.reporterClaimed.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Blocks the handler thread the call starts on, standing in for a docker fork
+     */
+    private final class BlockingInterceptor implements ServerInterceptor {
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(blockMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return next.startCall(call, headers);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.webex.agentic.benchmarks;
+
+import com.webex.agentic.gateway.grpc.ChannelFactory;
+import com.webex.agentic.gateway.grpc.DefaultChannelFactory;
+import com.webex.agentic.gateway.service.*;
+import com.webex.agentic.plugin.add.service.AddPluginService;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gateway services wired as Spring would wire them, talking over in-process gRPC to a
+ * {@link FakeRuntimeSupervisor} and the real {@link AddPluginService}.
+ *
+ * In-process servers are registered under the same {@code host:port} targets the gateway
+ * dials on the network, so the registry and worker addressing are exercised unchanged.
+ * With {@code inProcessPlugin} the add plugin is instead loaded by {@link InProcessPluginHost}
+ * from the jar it was packaged in, as a trusted plugin would be.
+ */
+final class InProcessPlatform implements AutoCloseable {
+
+    static final String WORKER_ID = "add-worker-1";
+
+    private final Server supervisorServer;
+    private final Server workerServer;
+    private final RuntimeSupervisorClient runtimeClient;
+    private final WorkerChannelPool channelPool;
+    private final InProcessPluginHost pluginHost;
+    private final SessionLeases sessionLeases;
+    private final SupervisorRouter router;
+    private final PluginExecutionService executionService;
+
+    InProcessPlatform(boolean typedPayloads, boolean resultCacheEnabled, boolean inProcessPlugin) throws IOException {
+        PluginRegistry registry = new PluginRegistry(inProcessPlugin ? Set.of("add_numbers") : Set.of(),
+            "classpath:plugins.yml", Duration.ZERO, "java-runtime-supervisor:9091", "python-runtime-supervisor:9092");
+        String supervisorTarget = registry.getPlugin("add_numbers").getRuntimeAddress();
+
+        this.supervisorServer = InProcessServerBuilder.forName(supervisorTarget)
+            .directExecutor()
+            .addService(new FakeRuntimeSupervisor(WORKER_ID))
+            .build()
+            .start();
+        this.workerServer = InProcessServerBuilder.forName(WORKER_ID + ":8080")
+            .directExecutor()
+            .addService(new AddPluginService())
+            .build()
+            .start();
+
+        // Network targets go to the fakes; inprocess: targets to plugins hosted by InProcessPluginHost
+        ChannelFactory hostedPlugins = new DefaultChannelFactory();
+        ChannelFactory channelFactory = target -> target.startsWith(ChannelFactory.IN_PROCESS_PREFIX)
+            ? hostedPlugins.forTarget(target)
+            : InProcessChannelBuilder.forName(target);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        this.runtimeClient = new RuntimeSupervisorClient(channelFactory, false);
+        this.channelPool = new WorkerChannelPool(channelFactory,
+            Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofMinutes(5));
+        this.pluginHost = new InProcessPluginHost(registry, stagePluginDir(), List.of(
+            "com.webex.agentic.proto.", "com.webex.agentic.common.", "io.grpc.", "com.google.protobuf.",
+            "com.fasterxml.jackson.", "org.slf4j."), false);
+        InvocationMetrics metrics = new InvocationMetrics(meterRegistry);
+        this.sessionLeases = new SessionLeases(runtimeClient, metrics, meterRegistry, true, Duration.ofMinutes(5));
+        this.router = new SupervisorRouter(runtimeClient, meterRegistry, Duration.ofSeconds(2), Duration.ofSeconds(5));
+        this.executionService = new PluginExecutionService(
+            registry,
+            runtimeClient,
+            channelPool,
+            pluginHost,
+            sessionLeases,
+            new ResultCache(registry, meterRegistry, resultCacheEnabled),
+            new InFlightInvocations(meterRegistry, true),
+            router,
+            metrics,
+            16,
+            typedPayloads,
+            Duration.ofSeconds(30));
+    }
+
+    PluginExecutionService executionService() {
+        return executionService;
+    }
+
+    /**
+     * Plugin directory holding the jar AddPluginService was loaded from, e.g. the benchmarks uber-jar
+     */
+    private static Path stagePluginDir() throws IOException {
+        Path dir = Files.createTempDirectory("benchmark-plugins");
+        try {
+            Path source = Path.of(AddPluginService.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isRegularFile(source)) {
+                Path pluginDir = Files.createDirectories(dir.resolve("add_numbers"));
+                Files.copy(source, pluginDir.resolve(source.getFileName()));
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        return dir;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        sessionLeases.shutdown();
+        router.shutdown();
+        pluginHost.shutdown();
+        channelPool.shutdown();
+        runtimeClient.shutdown();
+        supervisorServer.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        workerServer.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,68 @@
+package com.webex.agentic.benchmarks;
+
+import com.webex.agentic.common.model.BatchItemResult;
+import com.webex.agentic.common.model.BatchOperation;
+import com.webex.agentic.common.model.CalculationRequest;
+import com.webex.agentic.common.model.CalculationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code PluginExecutionService} latency: allocate, channel lease, Init, Invoke
+ * and release against in-process fakes. With the result cache enabled every call after the
+ * first is a hit, which measures the cache path instead. {@code isolation=inprocess} hosts the
+ * plugin in the gateway and skips the supervisor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvocationBenchmark {
+
+    private static final int BATCH_SIZE = 32;
+
+    @Param({"true", "false"})
+    public boolean typedPayloads;
+
+    @Param({"false", "true"})
+    public boolean resultCache;
+
+    @Param({"container", "inprocess"})
+    public String isolation;
+
+    private InProcessPlatform platform;
+    private CalculationRequest request;
+    private List<BatchOperation> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        platform = new InProcessPlatform(typedPayloads, resultCache, "inprocess".equals(isolation));
+        request = new CalculationRequest(40, 2);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new BatchOperation("add_numbers", i, 2));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        platform.close();
+    }
+
+    @Benchmark
+    public CalculationResult executeCalculation() {
+        return platform.executionService().executeCalculation("add_numbers", request).block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<BatchItemResult> executeBatch() {
+        return platform.executionService().executeBatch(batch).block();
+    }
+}
@@ -0,0 +1,98 @@
+package com.webex.agentic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.webex.agentic.common.model.CalculationRequest;
+import com.webex.agentic.common.model.CalculationResult;
+import com.webex.agentic.proto.calculation.CalculationArgs;
+import com.webex.agentic.proto.calculation.CalculationOutput;
+import com.webex.agentic.proto.ppp.Completed;
+import com.webex.agentic.proto.ppp.InvokeRequest;
+import com.webex.agentic.proto.ppp.Json;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs typed protobuf payloads for one PPP round trip, each direction measured from the
+ * sender's model object through the wire bytes to the receiver's model object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "typed"})
+    public String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CalculationRequest request;
+    private CalculationResult result;
+
+    @Setup
+    public void setUp() {
+        request = new CalculationRequest(1234.5678, 8765.4321);
+        result = new CalculationResult(10000.0, "add", request.getOperand1(), request.getOperand2());
+    }
+
+    /**
+     * Gateway encodes the CalculationRequest into an InvokeRequest; the plugin decodes it
+     */
+    @Benchmark
+    public CalculationRequest arguments() throws IOException {
+        InvokeRequest.Builder invokeReq = InvokeRequest.newBuilder()
+            .setPrimitive("add_numbers")
+            .setVersion("1.0.0")
+            .setRequestId("request-1");
+        if ("typed".equals(format)) {
+            invokeReq.setTypedArguments(Any.pack(CalculationArgs.newBuilder()
+                .setOperand1(request.getOperand1())
+                .setOperand2(request.getOperand2())
+                .build()));
+        } else {
+            invokeReq.setArguments(Json.newBuilder()
+                .setValue(ByteString.copyFromUtf8(objectMapper.writeValueAsString(request))));
+        }
+
+        InvokeRequest received = InvokeRequest.parseFrom(invokeReq.build().toByteString());
+        if (received.hasTypedArguments()) {
+            CalculationArgs args = received.getTypedArguments().unpack(CalculationArgs.class);
+            return new CalculationRequest(args.getOperand1(), args.getOperand2());
+        }
+        return objectMapper.readValue(received.getArguments().getValue().toStringUtf8(), CalculationRequest.class);
+    }
+
+    /**
+     * Plugin encodes the CalculationResult into a Completed message; the gateway decodes it
+     */
+    @Benchmark
+    public CalculationResult output() throws IOException {
+        Completed.Builder completed = Completed.newBuilder()
+            .setRequestId("request-1")
+            .setTaskId("request-1");
+        if ("typed".equals(format)) {
+            completed.setTypedOutput(Any.pack(CalculationOutput.newBuilder()
+                .setResult(result.getResult())
+                .setOperation(result.getOperation())
+                .setOperand1(result.getOperand1())
+                .setOperand2(result.getOperand2())
+                .build()));
+        } else {
+            completed.setOutput(Json.newBuilder()
+                .setValue(ByteString.copyFromUtf8(objectMapper.writeValueAsString(result))));
+        }
+
+        Completed received = Completed.parseFrom(completed.build().toByteString());
+        if (received.hasTypedOutput()) {
+            CalculationOutput output = received.getTypedOutput().unpack(CalculationOutput.class);
+            return new CalculationResult(output.getResult(), output.getOperation(),
+                output.getOperand1(), output.getOperand2());
+        }
+        return objectMapper.readValue(received.getOutput().getValue().toStringUtf8(), CalculationResult.class);
+    }
+}
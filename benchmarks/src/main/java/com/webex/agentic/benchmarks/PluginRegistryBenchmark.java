@@ -0,0 +1,39 @@
+package com.webex.agentic.benchmarks;
+
+import com.webex.agentic.gateway.service.PluginRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primitive-to-spec lookup done on every invocation and batch entry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginRegistryBenchmark {
+
+    private static final String[] PRIMITIVES = {
+        "add_numbers", "multiply_numbers", "subtract_numbers", "divide_numbers"
+    };
+
+    private PluginRegistry registry;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = new PluginRegistry(Set.of(), "classpath:plugins.yml", Duration.ZERO,
+            "java-runtime-supervisor:9091", "python-runtime-supervisor:9092");
+    }
+
+    @Benchmark
+    public PluginRegistry.PluginSpec getPlugin() {
+        next = (next + 1) & (PRIMITIVES.length - 1);
+        return registry.getPlugin(PRIMITIVES[next]);
+    }
+}
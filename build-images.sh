@@ -3,16 +3,24 @@ set -e
 
 echo "Building Agentic Server Platform POC Docker Images..."
 
+# JAVA_VERSION=21 builds with the java21 profile onto Java 21 images (virtual threads);
+# run with VIRTUAL_THREADS=true docker-compose up -d to enable them
+JAVA_VERSION=${JAVA_VERSION:-17}
+MAVEN_PROFILES=""
+if [ "$JAVA_VERSION" = "21" ]; then
+    MAVEN_PROFILES="-Pjava21"
+fi
+
 # Build all projects first
-echo "Building Maven projects..."
-./mvnw clean package -DskipTests
+echo "Building Maven projects (Java $JAVA_VERSION)..."
+./mvnw clean package -DskipTests $MAVEN_PROFILES
 
 # Build plugin worker images (these need to be built separately as they are spawned dynamically)
 echo "Building Java Add Plugin image..."
-docker build -t java-plugin-add:latest -f plugins/java-plugins/add/Dockerfile .
+docker build --build-arg JAVA_VERSION=$JAVA_VERSION -t java-plugin-add:latest -f plugins/java-plugins/add/Dockerfile .
 
 echo "Building Java Multiply Plugin image..."
-docker build -t java-plugin-multiply:latest -f plugins/java-plugins/multiply/Dockerfile .
+docker build --build-arg JAVA_VERSION=$JAVA_VERSION -t java-plugin-multiply:latest -f plugins/java-plugins/multiply/Dockerfile .
 
 echo "Building Python Subtract Plugin image..."
 docker build -t python-plugin-subtract:latest -f plugins/python-plugins/subtract/Dockerfile .
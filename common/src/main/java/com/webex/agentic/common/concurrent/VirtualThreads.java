@@ -0,0 +1,96 @@
+package com.webex.agentic.common.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for blocking work (gRPC handlers, docker and process calls, in-process plugins) that
+ * run as virtual threads when {@code spring.threads.virtual.enabled} is set.
+ *
+ * Virtual threads need a Java 21 runtime (see the {@code java21} build profile). The code base
+ * still compiles for Java 17, so they are looked up reflectively; on an older runtime, or when
+ * not enabled, platform daemon threads are used as before.
+ */
+public final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+    private static final Method NEW_PER_TASK_EXECUTOR = method(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether this runtime has virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NEW_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Factory for threads named {@code name-<n>}: virtual threads if {@code virtual} is set and
+     * supported, platform daemon threads otherwise
+     */
+    public static ThreadFactory factory(String name, boolean virtual) {
+        if (virtual) {
+            ThreadFactory factory = virtualFactory(name);
+            if (factory != null) {
+                return factory;
+            }
+            log.warn("Virtual threads requested for {} but not supported by Java {}; using platform threads",
+                name, Runtime.version().feature());
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Executor running each task on a new virtual thread if {@code virtual} is set and supported,
+     * otherwise on a cached pool of platform daemon threads
+     */
+    public static ExecutorService newPerTaskExecutor(String name, boolean virtual) {
+        ThreadFactory factory = factory(name, virtual);
+        if (virtual && isSupported()) {
+            try {
+                return (ExecutorService) NEW_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    private static ThreadFactory virtualFactory(String name) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Cannot create virtual threads: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
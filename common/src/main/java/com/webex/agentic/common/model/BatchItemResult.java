@@ -0,0 +1,61 @@
+package com.webex.agentic.common.model;
+
+/**
+ * Outcome of one batch entry: either a result or an error, at the entry's index in the request
+ */
+public class BatchItemResult {
+    private int index;
+    private String operation;
+    private CalculationResult result;
+    private String error;
+    
+    public BatchItemResult() {
+    }
+    
+    public BatchItemResult(int index, String operation, CalculationResult result, String error) {
+        this.index = index;
+        this.operation = operation;
+        this.result = result;
+        this.error = error;
+    }
+    
+    public static BatchItemResult success(int index, String operation, CalculationResult result) {
+        return new BatchItemResult(index, operation, result, null);
+    }
+    
+    public static BatchItemResult failure(int index, String operation, String error) {
+        return new BatchItemResult(index, operation, null, error);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+    
+    public CalculationResult getResult() {
+        return result;
+    }
+    
+    public void setResult(CalculationResult result) {
+        this.result = result;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
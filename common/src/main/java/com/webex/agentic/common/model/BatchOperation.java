@@ -0,0 +1,47 @@
+package com.webex.agentic.common.model;
+
+/**
+ * One entry of a batch calculation: the operation name plus its operands
+ */
+public class BatchOperation {
+    private String operation;
+    private double operand1;
+    private double operand2;
+    
+    public BatchOperation() {
+    }
+    
+    public BatchOperation(String operation, double operand1, double operand2) {
+        this.operation = operation;
+        this.operand1 = operand1;
+        this.operand2 = operand2;
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+    
+    public double getOperand1() {
+        return operand1;
+    }
+    
+    public void setOperand1(double operand1) {
+        this.operand1 = operand1;
+    }
+    
+    public double getOperand2() {
+        return operand2;
+    }
+    
+    public void setOperand2(double operand2) {
+        this.operand2 = operand2;
+    }
+    
+    public CalculationRequest toCalculationRequest() {
+        return new CalculationRequest(operand1, operand2);
+    }
+}
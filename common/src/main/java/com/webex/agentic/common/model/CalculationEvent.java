@@ -0,0 +1,108 @@
+package com.webex.agentic.common.model;
+
+import java.util.Map;
+
+/**
+ * One event of a streamed calculation: any number of progress events, then exactly one
+ * completed (with the result) or failed (with an error code and message) event
+ */
+public class CalculationEvent {
+    public static final String PROGRESS = "progress";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private String type;
+    private Double percent;
+    private String message;
+    private Map<String, Double> gauges;
+    private CalculationResult result;
+    private String code;
+
+    public CalculationEvent() {
+    }
+
+    public CalculationEvent(String type, Double percent, String message, Map<String, Double> gauges,
+                            CalculationResult result, String code) {
+        this.type = type;
+        this.percent = percent;
+        this.message = message;
+        this.gauges = gauges;
+        this.result = result;
+        this.code = code;
+    }
+
+    public static CalculationEvent progress(double percent, String message, Map<String, Double> gauges) {
+        return new CalculationEvent(PROGRESS, percent, message, gauges, null, null);
+    }
+
+    public static CalculationEvent completed(CalculationResult result) {
+        return new CalculationEvent(COMPLETED, null, null, null, result, null);
+    }
+
+    public static CalculationEvent failed(String code, String message) {
+        return new CalculationEvent(FAILED, null, message, null, null, code);
+    }
+
+    /**
+     * progress, completed or failed
+     */
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * 0..100; progress events only
+     */
+    public Double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+
+    /**
+     * What the plugin is doing (progress) or why it failed (failed)
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Domain counters reported with progress
+     */
+    public Map<String, Double> getGauges() {
+        return gauges;
+    }
+
+    public void setGauges(Map<String, Double> gauges) {
+        this.gauges = gauges;
+    }
+
+    public CalculationResult getResult() {
+        return result;
+    }
+
+    public void setResult(CalculationResult result) {
+        this.result = result;
+    }
+
+    /**
+     * Machine-readable failure code, e.g. the plugin's Failed.code or DEADLINE_EXCEEDED
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
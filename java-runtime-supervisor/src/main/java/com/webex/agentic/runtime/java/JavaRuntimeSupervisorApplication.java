@@ -1,12 +1,29 @@
 package com.webex.agentic.runtime.java;
 
+import com.webex.agentic.common.concurrent.VirtualThreads;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class JavaRuntimeSupervisorApplication {
     public static void main(String[] args) {
         SpringApplication.run(JavaRuntimeSupervisorApplication.class, args);
     }
+
+    /**
+     * Runs gRPC handlers, which block on launches and docker, on virtual threads when
+     * {@code spring.threads.virtual.enabled} is set (Java 21); otherwise on gRPC's default pool
+     */
+    @Bean
+    public GrpcServerConfigurer grpcServerExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return serverBuilder -> {
+            if (virtualThreads && VirtualThreads.isSupported()) {
+                serverBuilder.executor(VirtualThreads.newPerTaskExecutor("grpc-handler", true));
+            }
+        };
+    }
 }
 
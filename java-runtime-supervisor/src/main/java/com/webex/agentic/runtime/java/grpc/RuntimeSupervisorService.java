@@ -3,11 +3,25 @@ package com.webex.agentic.runtime.java.grpc;
 import com.google.protobuf.Struct;
 import com.google.protobuf.Timestamp;
 import com.webex.agentic.proto.supervisor.*;
+import com.webex.agentic.runtime.java.service.DemandModel;
+import com.webex.agentic.runtime.java.service.WorkerLeases;
 import com.webex.agentic.runtime.java.service.WorkerManager;
+import com.webex.agentic.runtime.java.service.WorkerPool;
+import com.webex.agentic.runtime.java.service.WorkerScheduler;
+import com.webex.agentic.runtime.java.service.WorkerUsage;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * gRPC service implementation for Runtime Supervisor API
@@ -18,94 +32,464 @@ public class RuntimeSupervisorService extends RuntimeSupervisorGrpc.RuntimeSuper
     private static final Logger log = LoggerFactory.getLogger(RuntimeSupervisorService.class);
 
     private final WorkerManager workerManager;
+    private final WorkerScheduler scheduler;
+    private final WorkerLeases leases;
+    private final DemandModel demandModel;
+    private final Duration admissionWait;
     
-    public RuntimeSupervisorService(WorkerManager workerManager) {
+    public RuntimeSupervisorService(
+            WorkerManager workerManager,
+            WorkerScheduler scheduler,
+            WorkerLeases leases,
+            DemandModel demandModel,
+            @Value("${supervisor.readiness.admission-wait:2s}") Duration admissionWait) {
         this.workerManager = workerManager;
+        this.scheduler = scheduler;
+        this.leases = leases;
+        this.demandModel = demandModel;
+        this.admissionWait = admissionWait;
     }
 
     @Override
     public void ensurePlugin(EnsurePluginRequest request, StreamObserver<EnsurePluginResponse> responseObserver) {
-        log.info("EnsurePlugin called for: {}", request.getPlugin().getId());
+        log.info("EnsurePlugin called for: {} (prewarm: {})", request.getPlugin().getId(), request.getPrewarm());
         
-        EnsurePluginResponse response = EnsurePluginResponse.newBuilder()
-            .setState(EnsurePluginResponse.State.READY)
-            .build();
+        EnsurePluginResponse.Builder response = EnsurePluginResponse.newBuilder()
+            .setState(EnsurePluginResponse.State.READY);
+
+        if (request.getPrewarm()) {
+            try {
+                Map<String, String> opaque = request.getHints().getOpaqueMap();
+                workerManager.prewarm(
+                    request.getPlugin().getId(),
+                    request.getPlugin().getEntrypoint(),
+                    parseInt(opaque.get("pool.min_idle")),
+                    parseInt(opaque.get("pool.max_idle"))
+                );
+            } catch (Exception e) {
+                log.error("Error prewarming plugin", e);
+                response.addWarnings("Prewarm failed: " + e.getMessage());
+            }
+        }
         
-        responseObserver.onNext(response);
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listPlugins(ListPluginsRequest request, StreamObserver<ListPluginsResponse> responseObserver) {
+        ListPluginsResponse.Builder response = ListPluginsResponse.newBuilder();
+        for (String pluginId : workerManager.getLaunchablePlugins()) {
+            response.addPlugins(PluginRef.newBuilder()
+                .setId(pluginId)
+                .setLanguage("java")
+                .build());
+        }
+
+        responseObserver.onNext(response.build());
         responseObserver.onCompleted();
     }
 
     @Override
     public void allocateWorker(AllocateWorkerRequest request, StreamObserver<AllocateWorkerResponse> responseObserver) {
         log.info("AllocateWorker called for: {}", request.getPlugin().getId());
-        
-        try {
-            WorkerManager.WorkerProcess worker = workerManager.startWorker(
-                request.getPlugin().getId(),
-                request.getPlugin().getEntrypoint()
-            );
-
-            WorkerHandle handle = WorkerHandle.newBuilder()
-                .setWorkerId(worker.getWorkerId())
-                .setRuntime("java")
-                .setNotBefore(Timestamp.newBuilder()
-                    .setSeconds(System.currentTimeMillis() / 1000)
-                    .build())
-                .build();
-
-            Admission admission = Admission.newBuilder()
-                .setStatus(Admission.Status.ADMITTED)
-                .build();
-
-            AllocateWorkerResponse response = AllocateWorkerResponse.newBuilder()
-                .setAdmission(admission)
-                .setHandle(handle)
-                .build();
-
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
-            
-        } catch (Exception e) {
-            log.error("Error allocating worker", e);
-            
-            Admission admission = Admission.newBuilder()
-                .setStatus(Admission.Status.REJECTED)
-                .setReason("Failed to start worker: " + e.getMessage())
-                .build();
-
-            AllocateWorkerResponse response = AllocateWorkerResponse.newBuilder()
-                .setAdmission(admission)
-                .build();
-
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
-        }
+
+        WorkerScheduler.Ticket ticket = scheduler.submit(
+            request.getPlugin().getId(),
+            request.getPlugin().getEntrypoint(),
+            request.getForceFreshProcess(),
+            request.getHints().getPriority(),
+            request.hasSoftDeadline() ? toDuration(request.getSoftDeadline()) : null
+        );
+
+        // A caller that goes away (cancelled, or past its deadline) before the answer never learns
+        // the handle, so nobody would release it: withdraw the ticket or release its worker here
+        AtomicBoolean settled = new AtomicBoolean();
+        ((ServerCallStreamObserver<AllocateWorkerResponse>) responseObserver).setOnCancelHandler(() -> {
+            if (settled.compareAndSet(false, true)) {
+                log.info("Allocation {} for {} abandoned by its caller", ticket.getId(), ticket.getPluginId());
+                WorkerManager.WorkerProcess worker = scheduler.release(ticket.getId());
+                if (worker != null) {
+                    workerManager.releaseWorker(worker.getWorkerId());
+                }
+            }
+        });
+
+        // ADMITTED once a worker is granted and serving; if that takes longer than admission-wait,
+        // answer QUEUED and let the caller follow the handle via WatchWorker
+        Duration leaseTtl = request.hasLeaseTtl() ? toDuration(request.getLeaseTtl()) : null;
+        ticket.getGrant().thenCompose(WorkerManager.WorkerProcess::getReady)
+            .completeOnTimeout(null, admissionWait.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((ready, e) -> {
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+                WorkerManager.WorkerProcess worker = ticket.getWorker();
+                AllocateWorkerResponse response;
+                if (e != null) {
+                    scheduler.claim(ticket);
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.warn("Allocation for {} rejected: {}", request.getPlugin().getId(), cause.getMessage());
+                    response = rejected(worker == null
+                        ? cause.getMessage()
+                        : "Worker failed to become ready: " + cause.getMessage());
+                } else if (worker == null) {
+                    response = queued(ticket, leases.grant(ticket.getId(), ticket.getPluginId(), leaseTtl));
+                } else {
+                    // The handle stays the ticket id: a shared worker is bound to several at once
+                    Duration ttl = leases.grant(ticket.getId(), ticket.getPluginId(), leaseTtl);
+                    response = allocated(ticket, worker, ttl, ready == null
+                        ? Admission.newBuilder()
+                            .setStatus(Admission.Status.QUEUED)
+                            .setReason("Worker starting")
+                            .build()
+                        : Admission.newBuilder()
+                            .setStatus(Admission.Status.ADMITTED)
+                            .build());
+                }
+                responseObserver.onNext(response);
+                responseObserver.onCompleted();
+            });
     }
 
     @Override
     public void releaseWorker(ReleaseWorkerRequest request, StreamObserver<ReleaseWorkerResponse> responseObserver) {
         log.info("ReleaseWorker called for: {}", request.getWorkerId());
-        
-        workerManager.stopWorker(request.getWorkerId());
-        
-        ReleaseWorkerResponse response = ReleaseWorkerResponse.newBuilder()
-            .setStats(Struct.newBuilder().build())
-            .build();
-        
-        responseObserver.onNext(response);
+
+        leases.end(request.getWorkerId());
+        WorkerScheduler.Ticket ticket = scheduler.getTicket(request.getWorkerId());
+        WorkerManager.WorkerProcess worker = scheduler.release(request.getWorkerId());
+        // Measured while the worker still runs; it may be stopped by the release
+        Struct stats = worker != null
+            ? stats(workerManager.account(worker, ticket != null && ticket.getGrantedNanos() != 0
+                ? ticket.getGrantedNanos()
+                : worker.getAcquiredAtNanos()))
+            : Struct.getDefaultInstance();
+        boolean terminated = worker == null || workerManager.releaseWorker(worker.getWorkerId());
+
+        ReleaseWorkerResponse.Builder response = ReleaseWorkerResponse.newBuilder()
+            .setStats(stats)
+            .setTerminated(terminated);
+        if (worker != null) {
+            response.setWorkerId(worker.getWorkerId());
+            if (worker.getAddress() != null) {
+                response.setWorkerAddress(worker.getAddress());
+            }
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void renewLease(RenewLeaseRequest request, StreamObserver<RenewLeaseResponse> responseObserver) {
+        String handleId = request.getWorkerId();
+        RenewLeaseResponse.Builder response = RenewLeaseResponse.newBuilder();
+
+        // A handle whose worker is gone is worth nothing to its holder; let it allocate anew
+        WorkerScheduler.Ticket ticket = scheduler.getTicket(handleId);
+        WorkerManager.WorkerProcess worker = ticket != null ? ticket.getWorker() : workerManager.getWorker(handleId);
+        boolean gone = ticket == null && worker == null
+            || worker != null && worker.getState() != WorkerManager.WorkerProcess.State.STARTING
+                && worker.getState() != WorkerManager.WorkerProcess.State.READY;
+        Duration ttl = gone ? null : leases.renew(handleId);
+        if (ttl != null) {
+            response.setRenewed(true).setTtl(toProtoDuration(ttl));
+        } else {
+            log.info("Lease on {} not renewed: handle no longer held", handleId);
+        }
+
+        responseObserver.onNext(response.build());
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void watchWorker(WatchWorkerRequest request, StreamObserver<WorkerEvent> responseObserver) {
+        WorkerScheduler.Ticket ticket = scheduler.getTicket(request.getWorkerId());
+        if (ticket != null) {
+            watchTicket(ticket, (ServerCallStreamObserver<WorkerEvent>) responseObserver);
+            return;
+        }
+
+        WorkerManager.WorkerProcess worker = workerManager.getWorker(request.getWorkerId());
+        if (worker == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                .withDescription("Unknown worker: " + request.getWorkerId())
+                .asRuntimeException());
+            return;
+        }
+        ServerCallStreamObserver<WorkerEvent> serverObserver = (ServerCallStreamObserver<WorkerEvent>) responseObserver;
+        // Nothing to detach; with a handler set, a cancelled call is seen through isCancelled()
+        serverObserver.setOnCancelHandler(() -> log.debug("Watch of worker {} cancelled", worker.getWorkerId()));
+        watchWorker(worker, serverObserver);
+    }
+
+    /**
+     * Streams QUEUED events while the ticket waits, then follows the worker it is granted
+     */
+    private void watchTicket(WorkerScheduler.Ticket ticket, ServerCallStreamObserver<WorkerEvent> responseObserver) {
+        // Set even for a granted ticket, as the handler can only be set before this call returns
+        responseObserver.setOnCancelHandler(() -> ticket.setPositionListener(null));
+        if (ticket.getWorker() == null) {
+            ticket.setPositionListener(t -> {
+                synchronized (responseObserver) {
+                    if (!responseObserver.isCancelled()) {
+                        responseObserver.onNext(queuedEvent(t));
+                    }
+                }
+            });
+            synchronized (responseObserver) {
+                responseObserver.onNext(queuedEvent(ticket));
+            }
+        }
+
+        ticket.getGrant().whenComplete((worker, e) -> {
+            ticket.setPositionListener(null);
+            if (e == null) {
+                watchWorker(worker, responseObserver);
+                return;
+            }
+            synchronized (responseObserver) {
+                if (!responseObserver.isCancelled()) {
+                    responseObserver.onNext(WorkerEvent.newBuilder()
+                        .setWorkerId(ticket.getId())
+                        .setState(WorkerEvent.State.FAILED)
+                        .setReason(String.valueOf(e.getMessage()))
+                        .setAt(now())
+                        .build());
+                    responseObserver.onCompleted();
+                }
+            }
+        });
+    }
+
+    private void watchWorker(WorkerManager.WorkerProcess worker, ServerCallStreamObserver<WorkerEvent> responseObserver) {
+        synchronized (responseObserver) {
+            if (responseObserver.isCancelled()) {
+                return;
+            }
+            responseObserver.onNext(workerEvent(worker, null));
+            if (worker.getState() != WorkerManager.WorkerProcess.State.STARTING) {
+                responseObserver.onCompleted();
+                return;
+            }
+        }
+
+        worker.getReady().whenComplete((ready, e) -> {
+            synchronized (responseObserver) {
+                if (!responseObserver.isCancelled()) {
+                    responseObserver.onNext(workerEvent(worker, e));
+                    responseObserver.onCompleted();
+                }
+            }
+        });
+    }
+
     @Override
     public void health(HealthRequest request, StreamObserver<HealthResponse> responseObserver) {
         log.debug("Health check called");
-        
+
+        // Load figures the gateway routes on; a node shedding requests is DEGRADED
+        int queueDepth = scheduler.getQueueDepth();
+        Struct.Builder pools = Struct.newBuilder();
+        int crashes = 0;
+        for (WorkerPool pool : workerManager.getPools().values()) {
+            pools.putFields(pool.getPluginId(), struct(poolStats(pool)));
+            crashes += pool.getCrashes();
+        }
+        Struct load = Struct.newBuilder()
+            .putFields("workers", number(workerManager.getWorkerCount()))
+            .putFields("launching", number(workerManager.getLaunchingCount()))
+            .putFields("max_workers", number(workerManager.getMaxWorkers()))
+            .putFields("queue_depth", number(queueDepth))
+            .putFields("max_queue_depth", number(scheduler.getMaxQueueDepth()))
+            .putFields("leases", number(leases.getActiveCount()))
+            .putFields("crashes", number(crashes))
+            .putFields("pools", struct(pools.build()))
+            .build();
+
         HealthResponse response = HealthResponse.newBuilder()
-            .setStatus(HealthResponse.Status.OK)
+            .setStatus(queueDepth >= scheduler.getMaxQueueDepth()
+                ? HealthResponse.Status.DEGRADED
+                : HealthResponse.Status.OK)
+            .setRuntimes(Struct.newBuilder()
+                .putFields("java", struct(load)))
             .build();
         
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
-}
 
+    /**
+     * ReleaseWorkerResponse.stats; measurements the launcher could not take are left out
+     */
+    private static Struct stats(WorkerUsage usage) {
+        Struct.Builder stats = Struct.newBuilder()
+            .putFields("duration_ms", number(usage.durationMillis()))
+            .putFields("invocations", number(usage.invocations()));
+        if (usage.cpuMillis() >= 0) {
+            stats.putFields("cpu_ms", number(usage.cpuMillis()));
+        }
+        if (usage.rssMaxBytes() >= 0) {
+            stats.putFields("rss_max", number(usage.rssMaxBytes()));
+        }
+        return stats.build();
+    }
+
+    /**
+     * Health entry for one plugin's pool: sizes, totals, recent launch latency and the demand
+     * model's estimate and last decision
+     */
+    private Struct poolStats(WorkerPool pool) {
+        Struct.Builder stats = Struct.newBuilder()
+            .putFields("live", number(pool.getLiveCount()))
+            .putFields("idle", number(pool.getIdleCount()))
+            .putFields("starting", number(pool.getStartingCount()))
+            .putFields("min_idle", number(pool.getMinIdle()))
+            .putFields("max_idle", number(pool.getMaxIdle()))
+            .putFields("target_idle", number(pool.getTargetIdle()))
+            .putFields("in_flight", number(pool.getInFlight()))
+            .putFields("max_concurrency", number(pool.getMaxConcurrency()))
+            .putFields("invocations", number(pool.getInvocations()))
+            .putFields("cpu_ms", number(pool.getCpuMillis()))
+            .putFields("crashes", number(pool.getCrashes()))
+            .putFields("launch_failures", number(pool.getLaunchFailures()));
+        if (pool.getRssMaxBytes() >= 0) {
+            stats.putFields("rss_max", number(pool.getRssMaxBytes()));
+        }
+        workerManager.getStartupPercentiles(pool.getPluginId())
+            .forEach((percentile, millis) -> stats.putFields("launch_ms_" + percentile, number(millis)));
+        DemandModel.Demand demand = demandModel.getDemand(pool.getPluginId());
+        if (demandModel.isEnabled() && demand != null) {
+            stats.putFields("demand", struct(Struct.newBuilder()
+                .putFields("arrival_rate", number(demand.getArrivalRate()))
+                .putFields("arrival_rate_fast", number(demand.getFastRate()))
+                .putFields("arrival_rate_slow", number(demand.getSlowRate()))
+                .putFields("service_ms", number(demand.getServiceSeconds() * 1000))
+                .putFields("offered_load", number(demand.getOfferedLoad()))
+                .putFields("target_workers", number(demand.getTargetWorkers()))
+                .putFields("target_idle", number(demand.getTargetIdle()))
+                .putFields("decision", com.google.protobuf.Value.newBuilder().setStringValue(demand.getDecision()).build())
+                .build()));
+        }
+        return stats.build();
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Integer.valueOf(value.trim());
+    }
+
+    private AllocateWorkerResponse allocated(WorkerScheduler.Ticket ticket, WorkerManager.WorkerProcess worker,
+                                             Duration ttl, Admission admission) {
+        WorkerHandle.Builder handle = WorkerHandle.newBuilder()
+            .setWorkerId(ticket.getId())
+            .setRuntime("java")
+            .setNotBefore(now())
+            .setTtl(toProtoDuration(ttl));
+        if (worker.getAddress() != null) {
+            handle.setAddress(worker.getAddress());
+        }
+
+        return AllocateWorkerResponse.newBuilder()
+            .setAdmission(admission)
+            .setHandle(handle)
+            .build();
+    }
+
+    private AllocateWorkerResponse queued(WorkerScheduler.Ticket ticket, Duration ttl) {
+        Duration eta = scheduler.estimateDelay(ticket.getPosition());
+        Admission admission = Admission.newBuilder()
+            .setStatus(Admission.Status.QUEUED)
+            .setEstimatedStartDelay(toProtoDuration(eta))
+            .setReason("Waiting for capacity")
+            .build();
+
+        // The ticket id stands in for the worker until one is granted
+        WorkerHandle handle = WorkerHandle.newBuilder()
+            .setWorkerId(ticket.getId())
+            .setRuntime("java")
+            .setNotBefore(now())
+            .setTtl(toProtoDuration(ttl))
+            .build();
+
+        return AllocateWorkerResponse.newBuilder()
+            .setAdmission(admission)
+            .setHandle(handle)
+            .setQueue(queueInfo(ticket))
+            .build();
+    }
+
+    private WorkerEvent queuedEvent(WorkerScheduler.Ticket ticket) {
+        return WorkerEvent.newBuilder()
+            .setWorkerId(ticket.getId())
+            .setState(WorkerEvent.State.QUEUED)
+            .setAt(now())
+            .setQueue(queueInfo(ticket))
+            .build();
+    }
+
+    private Struct queueInfo(WorkerScheduler.Ticket ticket) {
+        Duration eta = scheduler.estimateDelay(ticket.getPosition());
+        return Struct.newBuilder()
+            .putFields("position", com.google.protobuf.Value.newBuilder().setNumberValue(ticket.getPosition()).build())
+            .putFields("moving_eta", com.google.protobuf.Value.newBuilder().setNumberValue(eta.toMillis() / 1000.0).build())
+            .putFields("depth", com.google.protobuf.Value.newBuilder().setNumberValue(scheduler.getQueueDepth()).build())
+            .build();
+    }
+
+    private static com.google.protobuf.Value number(double value) {
+        return com.google.protobuf.Value.newBuilder().setNumberValue(value).build();
+    }
+
+    private static com.google.protobuf.Value struct(Struct value) {
+        return com.google.protobuf.Value.newBuilder().setStructValue(value).build();
+    }
+
+    private static Duration toDuration(com.google.protobuf.Duration duration) {
+        return Duration.ofSeconds(duration.getSeconds(), duration.getNanos());
+    }
+
+    private static com.google.protobuf.Duration toProtoDuration(Duration duration) {
+        return com.google.protobuf.Duration.newBuilder()
+            .setSeconds(duration.getSeconds())
+            .setNanos(duration.getNano())
+            .build();
+    }
+
+    private AllocateWorkerResponse rejected(String reason) {
+        Admission admission = Admission.newBuilder()
+            .setStatus(Admission.Status.REJECTED)
+            .setReason(reason)
+            .build();
+
+        return AllocateWorkerResponse.newBuilder()
+            .setAdmission(admission)
+            .build();
+    }
+
+    private WorkerEvent workerEvent(WorkerManager.WorkerProcess worker, Throwable error) {
+        WorkerEvent.Builder event = WorkerEvent.newBuilder()
+            .setWorkerId(worker.getWorkerId())
+            .setAt(now());
+
+        switch (worker.getState()) {
+            case STARTING -> event.setState(WorkerEvent.State.STARTING);
+            case READY -> event.setState(WorkerEvent.State.READY).setAddress(worker.getAddress());
+            case FAILED -> event.setState(WorkerEvent.State.FAILED);
+            case TERMINATED -> event.setState(WorkerEvent.State.TERMINATED);
+        }
+        if (error != null) {
+            event.setReason(String.valueOf(error.getMessage()));
+        }
+        return event.build();
+    }
+
+    private static Timestamp now() {
+        return Timestamp.newBuilder()
+            .setSeconds(System.currentTimeMillis() / 1000)
+            .build();
+    }
+}
@@ -0,0 +1,225 @@
+package com.webex.agentic.runtime.java.launcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs each worker as a detached, auto-removed container on the platform network.
+ * Images are configured per plugin as {@code supervisor.launcher.docker.images.<plugin id>}.
+ * Resource usage is read from the container's own cgroup (v2, or v1 as a fallback) via docker exec.
+ *
+ * Containers are labelled with {@code supervisor.launcher.docker.owner}, so those left behind by
+ * an earlier run of this supervisor can be found and removed. Supervisors sharing a docker daemon
+ * must use distinct owners.
+ */
+@Service
+@ConditionalOnProperty(name = "supervisor.launcher.type", havingValue = "docker", matchIfMissing = true)
+public class DockerWorkerLauncher implements WorkerLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(DockerWorkerLauncher.class);
+    private static final String OWNER_LABEL = "com.webex.agentic.supervisor";
+
+    private final Environment environment;
+    private final String network;
+    private final Duration runTimeout;
+    private final Duration statsTimeout;
+    private final String owner;
+    private final boolean virtualThreads;
+
+    public DockerWorkerLauncher(
+            Environment environment,
+            @Value("${supervisor.launcher.docker.network:agentic-server-platform-poc_agentic-network}") String network,
+            @Value("${supervisor.launcher.docker.run-timeout:30s}") Duration runTimeout,
+            @Value("${supervisor.launcher.docker.stats-timeout:1s}") Duration statsTimeout,
+            @Value("${supervisor.launcher.docker.owner:java-runtime-supervisor}") String owner,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.environment = environment;
+        this.network = network;
+        this.runTimeout = runTimeout;
+        this.statsTimeout = statsTimeout;
+        this.owner = owner;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public Set<String> getPluginIds() {
+        return Binder.get(environment)
+            .bind("supervisor.launcher.docker.images", Bindable.mapOf(String.class, String.class))
+            .map(Map::keySet)
+            .orElse(Set.of());
+    }
+
+    @Override
+    public LaunchedWorker launch(String workerId, String pluginId, String entrypoint) throws IOException {
+        String imageName = environment.getProperty("supervisor.launcher.docker.images." + pluginId);
+        if (imageName == null) {
+            throw new IllegalArgumentException("No image configured for plugin " + pluginId +
+                " (supervisor.launcher.docker.images." + pluginId + ")");
+        }
+
+        // The container is named after the worker and reached by name on the shared network
+        List<String> command = new ArrayList<>(List.of(
+            "docker", "run",
+            "--name", workerId,
+            "--network", network,
+            "-e", "WORKER_ID=" + workerId,
+            "-e", "PLUGIN_ID=" + pluginId,
+            "--label", OWNER_LABEL + "=" + owner,
+            "-d",  // detached mode
+            "--rm" // auto-remove on stop
+        ));
+        if (virtualThreads) {
+            // Workers follow the supervisor onto virtual threads; needs a Java 21 image
+            command.addAll(List.of("-e", "SPRING_THREADS_VIRTUAL_ENABLED=true"));
+        }
+        command.add(imageName);
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+
+        // docker run -d returns once the container is created
+        try {
+            if (!process.waitFor(runTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("Timed out launching container " + workerId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted launching container " + workerId, e);
+        }
+        if (process.exitValue() != 0) {
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            throw new IOException("docker run failed for " + workerId + ": " + output);
+        }
+
+        log.info("Container {} started from {}", workerId, imageName);
+        return new Container(workerId, statsTimeout);
+    }
+
+    @Override
+    public Set<String> listRunning() {
+        // -a: containers that exited but were not removed yet count as still there
+        ProcessBuilder pb = new ProcessBuilder("docker", "ps", "-a",
+            "--filter", "label=" + OWNER_LABEL + "=" + owner,
+            "--format", "{{.Names}}");
+        try {
+            Process process = pb.start();
+            if (!process.waitFor(runTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                log.warn("Timed out listing worker containers");
+                return null;
+            }
+            if (process.exitValue() != 0) {
+                log.warn("docker ps failed with exit code {}", process.exitValue());
+                return null;
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            return output.lines().map(String::trim).filter(name -> !name.isEmpty()).collect(Collectors.toSet());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            log.warn("Cannot list worker containers: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void removeOrphan(String workerId) {
+        try {
+            new ProcessBuilder("docker", "rm", "-f", workerId).start()
+                .waitFor(runTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Error removing container " + workerId, e);
+        }
+    }
+
+    private record Container(String name, Duration statsTimeout) implements LaunchedWorker {
+
+        private static final String CPU_STAT = "/sys/fs/cgroup/cpu.stat";
+        private static final String MEMORY_PEAK = "/sys/fs/cgroup/memory.peak";
+        private static final String CPUACCT_USAGE = "/sys/fs/cgroup/cpuacct/cpuacct.usage";
+        private static final String MEMORY_MAX_USAGE = "/sys/fs/cgroup/memory/memory.max_usage_in_bytes";
+
+        @Override
+        public String getAddress() {
+            return name + ":8080";
+        }
+
+        @Override
+        public CompletableFuture<Integer> onExit() {
+            // The detached container is not followed after docker run returns
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public ResourceUsage usage() {
+            // grep -H prefixes each line with its file; files absent under this cgroup version are skipped
+            ProcessBuilder pb = new ProcessBuilder("docker", "exec", name, "grep", "-s", "-H", "",
+                CPU_STAT, MEMORY_PEAK, CPUACCT_USAGE, MEMORY_MAX_USAGE);
+            long cpuMillis = -1;
+            long rssMaxBytes = -1;
+            try {
+                Process process = pb.start();
+                if (!process.waitFor(statsTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                    return ResourceUsage.UNKNOWN;
+                }
+                String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                for (String line : output.split("\n")) {
+                    int colon = line.indexOf(':');
+                    if (colon < 0) {
+                        continue;
+                    }
+                    String file = line.substring(0, colon);
+                    String value = line.substring(colon + 1).trim();
+                    switch (file) {
+                        case CPU_STAT -> {
+                            if (value.startsWith("usage_usec ")) {
+                                cpuMillis = Long.parseLong(value.substring("usage_usec ".length())) / 1000;
+                            }
+                        }
+                        case CPUACCT_USAGE -> cpuMillis = Long.parseLong(value) / 1_000_000;
+                        case MEMORY_PEAK, MEMORY_MAX_USAGE -> rssMaxBytes = Long.parseLong(value);
+                        default -> { }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | NumberFormatException e) {
+                log.debug("Cannot read resource usage of container {}: {}", name, e.getMessage());
+            }
+            return new ResourceUsage(cpuMillis, rssMaxBytes);
+        }
+
+        @Override
+        public void stop() {
+            try {
+                new ProcessBuilder("docker", "stop", name).start().waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.error("Error stopping container " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.webex.agentic.runtime.java.launcher;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A worker started by a {@link WorkerLauncher}
+ */
+public interface LaunchedWorker {
+
+    /**
+     * {@code host:port} the worker serves PPP on
+     */
+    String getAddress();
+
+    /**
+     * Completes with the exit code when the worker's process ends. Never completes if the
+     * launcher cannot observe the worker after starting it.
+     */
+    CompletableFuture<Integer> onExit();
+
+    /**
+     * CPU time and peak memory of the worker so far, read from its cgroup or {@code /proc}.
+     * May block briefly; {@link ResourceUsage#UNKNOWN} if the launcher cannot measure it.
+     */
+    default ResourceUsage usage() {
+        return ResourceUsage.UNKNOWN;
+    }
+
+    /**
+     * Stops the worker, blocking until it is gone or the launcher gives up. Safe to call more than once.
+     */
+    void stop();
+}
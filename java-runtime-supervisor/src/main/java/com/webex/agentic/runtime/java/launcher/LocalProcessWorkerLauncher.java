@@ -0,0 +1,173 @@
+package com.webex.agentic.runtime.java.launcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each worker as a child JVM on this host, so the platform runs without a Docker daemon.
+ *
+ * Plugin fat jars are configured per plugin as {@code supervisor.launcher.local.jars.<plugin id>}.
+ * Each worker gets a free loopback port passed as {@code --grpc.server.port}, and its output
+ * goes to {@code <log-dir>/<worker id>.log}. A worker that exits is reported through its
+ * process handle instead of being found out by the readiness timeout. Resource usage is read
+ * from the process handle (CPU time) and {@code /proc/<pid>/status} (peak RSS).
+ */
+@Service
+@ConditionalOnProperty(name = "supervisor.launcher.type", havingValue = "local")
+public class LocalProcessWorkerLauncher implements WorkerLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalProcessWorkerLauncher.class);
+
+    private final Environment environment;
+    private final String javaCommand;
+    private final List<String> jvmArgs;
+    private final String host;
+    private final Path logDir;
+    private final Duration stopTimeout;
+    private final boolean virtualThreads;
+
+    public LocalProcessWorkerLauncher(
+            Environment environment,
+            @Value("${supervisor.launcher.local.java:}") String javaCommand,
+            @Value("${supervisor.launcher.local.jvm-args:-XX:TieredStopAtLevel=1 -XX:+UseSerialGC}") String jvmArgs,
+            @Value("${supervisor.launcher.local.host:localhost}") String host,
+            @Value("${supervisor.launcher.local.log-dir:${java.io.tmpdir}/agentic-workers}") Path logDir,
+            @Value("${supervisor.launcher.local.stop-timeout:10s}") Duration stopTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) throws IOException {
+        this.environment = environment;
+        // Default to the JVM running the supervisor
+        this.javaCommand = javaCommand.isBlank()
+            ? ProcessHandle.current().info().command().orElse("java")
+            : javaCommand;
+        this.jvmArgs = jvmArgs.isBlank() ? List.of() : List.of(jvmArgs.trim().split("\\s+"));
+        this.host = host;
+        this.logDir = Files.createDirectories(logDir);
+        this.stopTimeout = stopTimeout;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public Set<String> getPluginIds() {
+        return Binder.get(environment)
+            .bind("supervisor.launcher.local.jars", Bindable.mapOf(String.class, String.class))
+            .map(Map::keySet)
+            .orElse(Set.of());
+    }
+
+    @Override
+    public LaunchedWorker launch(String workerId, String pluginId, String entrypoint) throws IOException {
+        String jar = environment.getProperty("supervisor.launcher.local.jars." + pluginId);
+        if (jar == null) {
+            throw new IllegalArgumentException("No jar configured for plugin " + pluginId +
+                " (supervisor.launcher.local.jars." + pluginId + ")");
+        }
+        if (!Files.isRegularFile(Path.of(jar))) {
+            throw new IOException("Plugin jar not found for " + pluginId + ": " + jar);
+        }
+
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(javaCommand);
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar);
+        command.add("--grpc.server.port=" + port);
+        if (virtualThreads) {
+            // Workers follow the supervisor onto virtual threads
+            command.add("--spring.threads.virtual.enabled=true");
+        }
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.environment().put("WORKER_ID", workerId);
+        pb.environment().put("PLUGIN_ID", pluginId);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.appendTo(logDir.resolve(workerId + ".log").toFile()));
+        Process process = pb.start();
+
+        log.info("Worker {} started as pid {} on port {} ({})", workerId, process.pid(), port, jar);
+        return new ChildProcess(workerId, process, host + ":" + port, stopTimeout);
+    }
+
+    /**
+     * An ephemeral port that is free right now. Another process may take it before the worker
+     * binds it, in which case the worker exits and is reported as failed.
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * VmHWM, the high-water mark of the process's resident set; -1 where there is no /proc
+     */
+    private static long peakRss(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    // e.g. "VmHWM:     123456 kB"
+                    return Long.parseLong(line.substring("VmHWM:".length()).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Cannot read peak RSS of pid {}: {}", pid, e.getMessage());
+        }
+        return -1;
+    }
+
+    private record ChildProcess(String workerId, Process process, String address, Duration stopTimeout)
+            implements LaunchedWorker {
+
+        @Override
+        public String getAddress() {
+            return address;
+        }
+
+        @Override
+        public CompletableFuture<Integer> onExit() {
+            return process.onExit().thenApply(Process::exitValue);
+        }
+
+        @Override
+        public ResourceUsage usage() {
+            long cpuMillis = process.info().totalCpuDuration().map(Duration::toMillis).orElse(-1L);
+            return new ResourceUsage(cpuMillis, peakRss(process.pid()));
+        }
+
+        @Override
+        public void stop() {
+            if (!process.isAlive()) {
+                return;
+            }
+            process.destroy();
+            try {
+                if (!process.waitFor(stopTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("Worker {} did not exit within {} ms, killing it", workerId, stopTimeout.toMillis());
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.webex.agentic.runtime.java.launcher;
+
+/**
+ * Resources a worker's container or process has used since it started
+ *
+ * @param cpuMillis   CPU time, user plus system; -1 if unknown
+ * @param rssMaxBytes peak resident memory; -1 if unknown
+ */
+public record ResourceUsage(long cpuMillis, long rssMaxBytes) {
+
+    public static final ResourceUsage UNKNOWN = new ResourceUsage(-1, -1);
+}
@@ -0,0 +1,39 @@
+package com.webex.agentic.runtime.java.launcher;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Starts plugin workers for the {@code WorkerManager}.
+ *
+ * The backend is chosen with {@code supervisor.launcher.type}: {@code docker} (default) runs a
+ * container per worker, {@code local} runs plugin fat jars as child JVMs on this host.
+ */
+public interface WorkerLauncher {
+
+    /**
+     * Starts a worker and returns once its container or process exists. Whether it is serving
+     * is probed separately on {@link LaunchedWorker#getAddress()}. May block; called on the
+     * manager's launch threads.
+     */
+    LaunchedWorker launch(String workerId, String pluginId, String entrypoint) throws IOException;
+
+    /**
+     * Ids of the plugins this launcher has an image or jar configured for
+     */
+    Set<String> getPluginIds();
+
+    /**
+     * Ids of the workers this launcher's backend is running, including ones left over from an
+     * earlier run of this supervisor; null if the backend cannot tell. May block.
+     */
+    default Set<String> listRunning() {
+        return null;
+    }
+
+    /**
+     * Removes a worker found running that the manager does not know. May block.
+     */
+    default void removeOrphan(String workerId) {
+    }
+}
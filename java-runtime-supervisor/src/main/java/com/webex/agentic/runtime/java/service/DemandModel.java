@@ -0,0 +1,290 @@
+package com.webex.agentic.runtime.java.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-plugin demand model that sizes warm pools ahead of traffic.
+ *
+ * Allocations feed an arrival rate, tracked as two EWMAs: a fast one that catches bursts and
+ * a slow one that follows the daily curve. Releases feed an EWMA of the time a worker stays
+ * bound to an invocation. Every interval the larger of the two rates and the service time give
+ * the plugin's offered load {@code a = rate * service time}, the expected concurrent invocations.
+ * The plugin is sized for {@code a + headroom * sqrt(a)} concurrent invocations (square-root
+ * staffing), so an arrival finds a free slot unless demand is well above its mean; divided by the
+ * invocations one worker serves at once, that gives the workers it needs. The workers this leaves
+ * over after the busy ones become the pool's target idle count, bounded by the per-plugin limit.
+ *
+ * A larger target applies at once. A smaller one, and idle workers above it, must persist for
+ * scale-down-delay before idle workers are stopped, so capacity is not torn down between bursts.
+ * The configured min-idle of a prewarmed pool stays the floor.
+ */
+@Service
+public class DemandModel {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandModel.class);
+
+    /**
+     * Assumed time a worker stays bound to one invocation until releases have been observed
+     */
+    private static final double INITIAL_SERVICE_SECONDS = 1.0;
+    private static final double SERVICE_TIME_ALPHA = 0.2;
+
+    private final Map<String, Demand> demands = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService planner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "warm-capacity-planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final WorkerManager workerManager;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration fastWindow;
+    private final Duration slowWindow;
+    private final double headroom;
+    private final double minRate;
+    private final Duration scaleDownDelay;
+
+    public DemandModel(
+            WorkerManager workerManager,
+            MeterRegistry meterRegistry,
+            @Value("${supervisor.autoscale.enabled:true}") boolean enabled,
+            @Value("${supervisor.autoscale.interval:5s}") Duration interval,
+            @Value("${supervisor.autoscale.fast-window:30s}") Duration fastWindow,
+            @Value("${supervisor.autoscale.slow-window:10m}") Duration slowWindow,
+            @Value("${supervisor.autoscale.headroom:2.0}") double headroom,
+            @Value("${supervisor.autoscale.min-rate:0.01}") double minRate,
+            @Value("${supervisor.autoscale.scale-down-delay:2m}") Duration scaleDownDelay) {
+        this.workerManager = workerManager;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.fastWindow = fastWindow;
+        this.slowWindow = slowWindow;
+        this.headroom = headroom;
+        this.minRate = minRate;
+        this.scaleDownDelay = scaleDownDelay;
+
+        if (enabled) {
+            planner.scheduleWithFixedDelay(this::plan,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts an allocation that may be served from the warm pool
+     */
+    public void arrived(String pluginId) {
+        demand(pluginId).arrivals.incrementAndGet();
+    }
+
+    /**
+     * Records how long a worker was bound to the invocation it was just released from
+     */
+    public void served(String pluginId, long nanos) {
+        if (nanos > 0) {
+            demand(pluginId).recordService(nanos / 1e9);
+        }
+    }
+
+    /**
+     * The plugin's current estimate and last decision; null before it has seen an allocation
+     */
+    public Demand getDemand(String pluginId) {
+        return demands.get(pluginId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        planner.shutdownNow();
+    }
+
+    private Demand demand(String pluginId) {
+        return demands.computeIfAbsent(pluginId, id -> {
+            Demand demand = new Demand();
+            Gauge.builder("supervisor.demand.target-idle", demand, Demand::getTargetIdle)
+                .description("Idle workers the demand model keeps warm")
+                .tag("plugin", id)
+                .register(meterRegistry);
+            Gauge.builder("supervisor.demand.arrival-rate", demand, Demand::getArrivalRate)
+                .description("Allocations per second the pool is sized for")
+                .tag("plugin", id)
+                .register(meterRegistry);
+            return demand;
+        });
+    }
+
+    /**
+     * One planning pass over every plugin that has seen demand
+     */
+    private void plan() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Demand> entry : demands.entrySet()) {
+            WorkerPool pool = workerManager.getPools().get(entry.getKey());
+            if (pool == null) {
+                continue;
+            }
+            try {
+                plan(pool, entry.getValue(), now);
+            } catch (RuntimeException e) {
+                log.error("Error planning warm capacity for {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    private void plan(WorkerPool pool, Demand demand, long now) {
+        demand.updateRates(now, fastWindow, slowWindow);
+
+        double rate = demand.getArrivalRate() < minRate ? 0 : demand.getArrivalRate();
+        double offeredLoad = rate * demand.getServiceSeconds();
+        int targetWorkers = offeredLoad > 0
+            ? (int) Math.ceil((offeredLoad + headroom * Math.sqrt(offeredLoad)) / pool.getMaxConcurrency())
+            : 0;
+        targetWorkers = Math.min(targetWorkers, workerManager.getMaxWorkersPerPlugin());
+        int busy = Math.max(0, pool.getLiveCount() - pool.getIdleCount() - pool.getStartingCount());
+        int target = Math.max(0, targetWorkers - busy);
+
+        int floor = pool.isWarm() ? pool.getMinIdle() : 0;
+        int applied = pool.getTargetIdle();
+        boolean shrinking = target < applied || pool.getIdleCount() > Math.max(floor, target);
+
+        String decision;
+        if (target > applied) {
+            workerManager.resizeWarmPool(pool, target);
+            demand.lowSince = 0;
+            decision = "up";
+            log.info("Scaled up warm pool {} to {} idle ({}/s x {} ms, {} busy)", pool.getPluginId(), target,
+                String.format("%.2f", rate), Math.round(demand.getServiceSeconds() * 1000), busy);
+        } else if (!shrinking) {
+            demand.lowSince = 0;
+            decision = "steady";
+        } else if (demand.lowSince == 0 || now - demand.lowSince < scaleDownDelay.toNanos()) {
+            if (demand.lowSince == 0) {
+                demand.lowSince = now;
+            }
+            decision = "hold";
+        } else {
+            workerManager.resizeWarmPool(pool, target);
+            int stopped = workerManager.trimIdle(pool, Math.max(floor, target));
+            // Further shrinking waits out another delay
+            demand.lowSince = now;
+            decision = "down";
+            log.info("Scaled down warm pool {} to {} idle ({} stopped, {}/s x {} ms)", pool.getPluginId(),
+                Math.max(floor, target), stopped, String.format("%.2f", rate), Math.round(demand.getServiceSeconds() * 1000));
+        }
+        if (decision.equals("up") || decision.equals("down")) {
+            meterRegistry.counter("supervisor.autoscale.decisions", "plugin", pool.getPluginId(), "decision", decision)
+                .increment();
+        }
+        demand.record(offeredLoad, targetWorkers, target, decision);
+    }
+
+    /**
+     * Demand estimate of one plugin. Rates are in allocations per second.
+     */
+    public static class Demand {
+
+        private final AtomicLong arrivals = new AtomicLong();
+        private long lastUpdateNanos = System.nanoTime();
+        private long lowSince;
+        private volatile double fastRate;
+        private volatile double slowRate;
+        private volatile double serviceSeconds = INITIAL_SERVICE_SECONDS;
+        private volatile double offeredLoad;
+        private volatile int targetWorkers;
+        private volatile int targetIdle;
+        private volatile String decision = "steady";
+
+        synchronized void recordService(double seconds) {
+            serviceSeconds = SERVICE_TIME_ALPHA * seconds + (1 - SERVICE_TIME_ALPHA) * serviceSeconds;
+        }
+
+        /**
+         * Folds the arrivals since the last update into both rates, weighting them by elapsed time
+         */
+        void updateRates(long now, Duration fastWindow, Duration slowWindow) {
+            double elapsed = (now - lastUpdateNanos) / 1e9;
+            lastUpdateNanos = now;
+            if (elapsed <= 0) {
+                return;
+            }
+            double observed = arrivals.getAndSet(0) / elapsed;
+            fastRate += (1 - Math.exp(-elapsed / (fastWindow.toNanos() / 1e9))) * (observed - fastRate);
+            slowRate += (1 - Math.exp(-elapsed / (slowWindow.toNanos() / 1e9))) * (observed - slowRate);
+        }
+
+        void record(double offeredLoad, int targetWorkers, int targetIdle, String decision) {
+            this.offeredLoad = offeredLoad;
+            this.targetWorkers = targetWorkers;
+            this.targetIdle = targetIdle;
+            this.decision = decision;
+        }
+
+        /**
+         * The rate the pool is sized for: whichever of the fast and slow rates is higher
+         */
+        public double getArrivalRate() {
+            return Math.max(fastRate, slowRate);
+        }
+
+        public double getFastRate() {
+            return fastRate;
+        }
+
+        public double getSlowRate() {
+            return slowRate;
+        }
+
+        /**
+         * Average time a worker stays bound to one invocation
+         */
+        public double getServiceSeconds() {
+            return serviceSeconds;
+        }
+
+        /**
+         * Expected concurrent invocations: arrival rate times service time
+         */
+        public double getOfferedLoad() {
+            return offeredLoad;
+        }
+
+        /**
+         * Workers, busy and idle, the plugin is sized for
+         */
+        public int getTargetWorkers() {
+            return targetWorkers;
+        }
+
+        /**
+         * Idle workers the last pass asked for, before hysteresis
+         */
+        public int getTargetIdle() {
+            return targetIdle;
+        }
+
+        /**
+         * Outcome of the last pass: up, down, hold (waiting out scale-down-delay) or steady
+         */
+        public String getDecision() {
+            return decision;
+        }
+    }
+}
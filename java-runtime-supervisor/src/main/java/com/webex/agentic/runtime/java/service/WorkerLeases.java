@@ -0,0 +1,147 @@
+package com.webex.agentic.runtime.java.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expiry of the handles handed out by AllocateWorker.
+ *
+ * Every handle carries a ttl: the lease_ttl the caller asked for, capped at max-ttl, or
+ * default-ttl for a single invocation. A handle that is neither released nor renewed within
+ * its ttl is reclaimed as if released, so a caller that goes away cannot pin a worker.
+ */
+@Service
+public class WorkerLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerLeases.class);
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "lease-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final WorkerScheduler scheduler;
+    private final WorkerManager workerManager;
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public WorkerLeases(
+            WorkerScheduler scheduler,
+            WorkerManager workerManager,
+            MeterRegistry meterRegistry,
+            @Value("${supervisor.leases.default-ttl:5m}") Duration defaultTtl,
+            @Value("${supervisor.leases.max-ttl:30m}") Duration maxTtl,
+            @Value("${supervisor.leases.reap-interval:5s}") Duration reapInterval) {
+        this.scheduler = scheduler;
+        this.workerManager = workerManager;
+        this.meterRegistry = meterRegistry;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+
+        Gauge.builder("supervisor.leases.active", leases, Map::size)
+            .description("Handles bound to a caller and not yet released")
+            .register(meterRegistry);
+        reaper.scheduleWithFixedDelay(this::reap,
+            reapInterval.toMillis(), reapInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the ttl of a handle just handed out
+     *
+     * @param requested the caller's lease_ttl; null for a single invocation
+     * @return the ttl granted
+     */
+    public Duration grant(String handleId, String pluginId, Duration requested) {
+        Duration ttl = requested == null || requested.isZero() || requested.isNegative()
+            ? defaultTtl
+            : requested.compareTo(maxTtl) > 0 ? maxTtl : requested;
+        leases.put(handleId, new Lease(pluginId, ttl));
+        return ttl;
+    }
+
+    /**
+     * Restarts the ttl of a handle still held
+     *
+     * @return the ttl left after renewal, or null if the handle was released or reclaimed
+     */
+    public Duration renew(String handleId) {
+        Lease lease = leases.computeIfPresent(handleId, (id, current) -> {
+            current.expiresAtNanos = System.nanoTime() + current.ttl.toNanos();
+            return current;
+        });
+        return lease == null ? null : lease.ttl;
+    }
+
+    /**
+     * Stops tracking a handle its holder released
+     */
+    public void end(String handleId) {
+        leases.remove(handleId);
+    }
+
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+    }
+
+    private void reap() {
+        long now = System.nanoTime();
+        for (String handleId : leases.keySet()) {
+            Lease[] expired = new Lease[1];
+            leases.computeIfPresent(handleId, (id, lease) -> {
+                if (lease.expiresAtNanos - now > 0) {
+                    return lease;
+                }
+                expired[0] = lease;
+                return null;
+            });
+            if (expired[0] != null) {
+                reclaim(handleId, expired[0]);
+            }
+        }
+    }
+
+    private void reclaim(String handleId, Lease lease) {
+        log.warn("Reclaiming {} of plugin {}: not released or renewed within {}", handleId, lease.pluginId, lease.ttl);
+        meterRegistry.counter("supervisor.leases.reclaimed", "plugin", lease.pluginId).increment();
+        try {
+            WorkerManager.WorkerProcess worker = scheduler.release(handleId);
+            if (worker != null) {
+                workerManager.releaseWorker(worker.getWorkerId());
+            }
+        } catch (Exception e) {
+            log.error("Error reclaiming " + handleId, e);
+        }
+    }
+
+    private static final class Lease {
+        private final String pluginId;
+        private final Duration ttl;
+        private volatile long expiresAtNanos;
+
+        Lease(String pluginId, Duration ttl) {
+            this.pluginId = pluginId;
+            this.ttl = ttl;
+            this.expiresAtNanos = System.nanoTime() + ttl.toNanos();
+        }
+    }
+}
@@ -1,119 +1,828 @@
 package com.webex.agentic.runtime.java.service;
 
+import com.webex.agentic.common.concurrent.VirtualThreads;
+import com.webex.agentic.proto.ppp.InitResponse;
+import com.webex.agentic.runtime.java.launcher.LaunchedWorker;
+import com.webex.agentic.runtime.java.launcher.ResourceUsage;
+import com.webex.agentic.runtime.java.launcher.WorkerLauncher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Manages worker container lifecycle
+ * Manages worker lifecycle and enforces the node's worker and launch limits.
+ * Workers are started by the configured {@link WorkerLauncher}; which request
+ * gets a worker next is decided by {@link WorkerScheduler}.
+ *
+ * A worker serves one invocation at a time unless its Health answer advertises
+ * {@code caps["max_concurrency"]}, capped at supervisor.pool.max-concurrency. Such a worker
+ * is handed to further invocations while it has spare slots (see {@link WorkerPool}) and only
+ * returns to the idle pool, or is recycled, once its last invocation is released.
+ *
+ * Stopped workers are torn down on a dedicated executor, so neither releases nor launches wait
+ * for a container to stop. A reaper reconciles the workers the launcher is running with the ones
+ * known here, at startup and every reaper interval: unknown ones (left over from an earlier run,
+ * or whose stop failed) are removed, and ready workers that are gone are dropped as crashed.
  */
 @Service
 public class WorkerManager {
-    
+
     private static final Logger log = LoggerFactory.getLogger(WorkerManager.class);
 
     private final Map<String, WorkerProcess> workers = new ConcurrentHashMap<>();
-    private final AtomicInteger portCounter = new AtomicInteger(10000);
-
-    public WorkerProcess startWorker(String pluginId, String entrypoint) throws IOException {
-        int port = portCounter.incrementAndGet();
-        String workerId = "worker-" + port;
-        
-        log.info("Starting worker {} for plugin {} (entrypoint: {})", workerId, pluginId, entrypoint);
-
-        // For POC, we use docker run to start worker containers
-        String containerName = workerId;
-        String imageName = getImageName(pluginId);
-        
-        ProcessBuilder pb = new ProcessBuilder(
-            "docker", "run",
-            "--name", containerName,
-            "--network", "agentic-server-platform-poc_agentic-network",
-            "-e", "WORKER_ID=" + workerId,
-            "-e", "PLUGIN_ID=" + pluginId,
-            "-d",  // detached mode
-            "--rm", // auto-remove on stop
-            imageName
-        );
-        
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-        
-        // Wait for container to start and DNS to propagate
-        try {
-            Thread.sleep(4000);  // Increased to 4 seconds for DNS propagation
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private final Map<String, WorkerPool> pools = new ConcurrentHashMap<>();
+    private final Set<String> stopping = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger workerCounter = new AtomicInteger(10000);
+    private final AtomicInteger launching = new AtomicInteger();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "worker-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService launchExecutor;
+    private final ExecutorService teardownExecutor;
+
+    private final WorkerLauncher launcher;
+    private final WorkerReadinessProbe readinessProbe;
+    private final MeterRegistry meterRegistry;
+    private final int defaultMinIdle;
+    private final int defaultMaxIdle;
+    private final int maxUsesPerWorker;
+    private final int maxConcurrency;
+    private final int maxWorkers;
+    private final int maxWorkersPerPlugin;
+    private final int maxLaunches;
+    private final int maxLaunchesPerPlugin;
+    private final boolean accountingEnabled;
+    private final long rssBudgetBytes;
+    private final Duration reapInterval;
+    private volatile Runnable capacityListener = () -> { };
+    private volatile boolean shuttingDown;
+
+    public WorkerManager(
+            WorkerLauncher launcher,
+            WorkerReadinessProbe readinessProbe,
+            MeterRegistry meterRegistry,
+            @Value("${supervisor.pool.min-idle:1}") int defaultMinIdle,
+            @Value("${supervisor.pool.max-idle:4}") int defaultMaxIdle,
+            @Value("${supervisor.pool.max-uses:100}") int maxUsesPerWorker,
+            @Value("${supervisor.pool.max-concurrency:64}") int maxConcurrency,
+            @Value("${supervisor.capacity.max-workers:32}") int maxWorkers,
+            @Value("${supervisor.capacity.max-workers-per-plugin:8}") int maxWorkersPerPlugin,
+            @Value("${supervisor.capacity.max-launches:4}") int maxLaunches,
+            @Value("${supervisor.capacity.max-launches-per-plugin:2}") int maxLaunchesPerPlugin,
+            @Value("${supervisor.accounting.enabled:true}") boolean accountingEnabled,
+            @Value("${supervisor.accounting.rss-budget:0}") DataSize rssBudget,
+            @Value("${supervisor.teardown.threads:4}") int teardownThreads,
+            @Value("${supervisor.reaper.interval:30s}") Duration reapInterval,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.launcher = launcher;
+        this.readinessProbe = readinessProbe;
+        this.meterRegistry = meterRegistry;
+        this.defaultMinIdle = defaultMinIdle;
+        this.defaultMaxIdle = defaultMaxIdle;
+        this.maxUsesPerWorker = maxUsesPerWorker;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxWorkers = maxWorkers;
+        this.maxWorkersPerPlugin = maxWorkersPerPlugin;
+        this.maxLaunches = maxLaunches;
+        this.maxLaunchesPerPlugin = maxLaunchesPerPlugin;
+        this.accountingEnabled = accountingEnabled;
+        this.rssBudgetBytes = rssBudget.toBytes();
+        this.reapInterval = reapInterval;
+        // Launches and teardowns block on docker or the worker process
+        this.launchExecutor = VirtualThreads.newPerTaskExecutor("worker-launcher", virtualThreads);
+        this.teardownExecutor = Executors.newFixedThreadPool(teardownThreads,
+            VirtualThreads.factory("worker-teardown", virtualThreads));
+
+        Gauge.builder("supervisor.workers.live", workers, Map::size)
+            .description("Workers on this node: starting, idle or bound")
+            .register(meterRegistry);
+        Gauge.builder("supervisor.workers.launching", launching, AtomicInteger::get)
+            .description("Workers launched but not ready yet")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Removes workers left over from an earlier run before any is launched, as their names
+     * would clash with the ones handed out now, then starts the periodic reaper
+     */
+    @PostConstruct
+    public void start() {
+        reap();
+        reaper.scheduleWithFixedDelay(this::reap,
+            reapInterval.toMillis(), reapInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers the callback run whenever a worker or launch slot may have been freed
+     */
+    public void setCapacityListener(Runnable capacityListener) {
+        this.capacityListener = capacityListener;
+    }
+
+    /**
+     * Hands out a worker for one invocation if capacity allows. Unless a fresh process
+     * is required, a spare slot on the least-loaded worker already serving is taken first,
+     * then an idle (already ready) worker from the plugin's warm pool; otherwise a new
+     * worker is launched and may still be STARTING.
+     *
+     * @return the worker, or null if the node or plugin is at its worker or launch limit
+     */
+    public WorkerProcess tryAcquire(String pluginId, String entrypoint, boolean forceFreshProcess) {
+        WorkerPool pool = getPool(pluginId, entrypoint);
+
+        if (!forceFreshProcess) {
+            WorkerProcess worker = pool.acquireShared(maxUsesPerWorker);
+            if (worker != null) {
+                log.info("Sharing worker {} for plugin {} ({}/{} in flight)",
+                    worker.getWorkerId(), pluginId, worker.getInFlight(), worker.getMaxConcurrency());
+                return worker;
+            }
+            worker = pool.pollIdle();
+            if (worker != null) {
+                pool.acquired(worker);
+                pool.share(worker);
+                log.info("Reusing warm worker {} for plugin {} (use #{})",
+                    worker.getWorkerId(), pluginId, worker.getUseCount());
+                return worker;
+            }
+        }
+
+        if (!reserveLaunch(pool, true)) {
+            return null;
+        }
+        WorkerProcess worker = launchWorker(pool);
+        worker.setReusable(!forceFreshProcess);
+        pool.acquired(worker);
+        return worker;
+    }
+
+    /**
+     * Ends one invocation on a worker. A worker still serving others keeps running; otherwise it
+     * returns to its warm pool, or is stopped if it is single-use, has served max-uses invocations
+     * or the pool is full.
+     *
+     * @return true if the worker is gone after this call
+     */
+    public boolean releaseWorker(String workerId) {
+        WorkerProcess worker = workers.get(workerId);
+        if (worker == null) {
+            log.warn("Release requested for unknown worker {}", workerId);
+            return true;
+        }
+
+        WorkerPool pool = pools.get(worker.getPluginId());
+        if (pool != null && pool.released(worker) > 0) {
+            // Its freed slot may go to a queued allocation
+            capacityListener.run();
+            return false;
         }
+        boolean poolable = pool != null && worker.isReusable() && worker.getUseCount() < maxUsesPerWorker;
+        if (poolable && worker.getState() == WorkerProcess.State.STARTING) {
+            // Released before it was serving, e.g. the caller gave up waiting; pool it once ready
+            worker.getReady().thenAccept(ready -> offerOrStop(pool, worker));
+            return false;
+        }
+        if (poolable && worker.getState() == WorkerProcess.State.READY && pool.offerIdle(worker)) {
+            log.info("Worker {} returned to pool {} (idle: {})",
+                workerId, pool.getPluginId(), pool.getIdleCount());
+            capacityListener.run();
+            return false;
+        }
+
+        stopWorker(workerId);
+        return true;
+    }
+
+    /**
+     * Marks the plugin's pool as warm; workers are started by {@link #replenish()}
+     * until minIdle workers are ready.
+     */
+    public void prewarm(String pluginId, String entrypoint, Integer minIdle, Integer maxIdle) {
+        WorkerPool pool = getPool(pluginId, entrypoint);
+        int max = maxIdle != null ? maxIdle : defaultMaxIdle;
+        int min = Math.min(minIdle != null ? minIdle : defaultMinIdle, max);
+        pool.configure(min, max);
+
+        log.info("Prewarming pool for plugin {} (min: {}, max: {})", pluginId, min, max);
+        capacityListener.run();
+    }
+
+    /**
+     * Sets the idle workers the pool keeps warm on top of its minIdle. A larger target starts
+     * workers as soon as capacity is spare; a smaller one leaves idle workers to {@link #trimIdle}.
+     */
+    public void resizeWarmPool(WorkerPool pool, int targetIdle) {
+        int previous = pool.getTargetIdle();
+        pool.setTargetIdle(targetIdle);
+        if (targetIdle > previous) {
+            capacityListener.run();
+        }
+    }
+
+    /**
+     * Stops idle workers of the pool until at most {@code keep} are left
+     *
+     * @return the number of workers stopped
+     */
+    public int trimIdle(WorkerPool pool, int keep) {
+        int stopped = 0;
+        while (pool.getIdleCount() > keep) {
+            WorkerProcess idle = pool.pollIdle();
+            if (idle == null) {
+                break;
+            }
+            stopWorker(idle.getWorkerId());
+            stopped++;
+        }
+        return stopped;
+    }
+
+    /**
+     * Starts workers for pools below the idle workers they should keep, within spare capacity only.
+     * Called by the scheduler when no allocation is waiting.
+     */
+    public void replenish() {
+        for (WorkerPool pool : pools.values()) {
+            while (pool.needsWarmWorker() && reserveLaunch(pool, false)) {
+                WorkerProcess worker = launchWorker(pool);
+                // Only ready workers enter the pool
+                worker.getReady().thenAccept(ready -> offerOrStop(pool, worker));
+            }
+        }
+    }
+
+    private void offerOrStop(WorkerPool pool, WorkerProcess worker) {
+        if (pool.offerIdle(worker)) {
+            capacityListener.run();
+        } else {
+            stopWorker(worker.getWorkerId());
+        }
+    }
+
+    /**
+     * Registers a STARTING worker and launches it in the background.
+     * The caller must hold a launch reservation for the pool.
+     */
+    private WorkerProcess launchWorker(WorkerPool pool) {
+        String workerId = "worker-" + workerCounter.incrementAndGet();
+        String pluginId = pool.getPluginId();
 
-        WorkerProcess worker = new WorkerProcess(workerId, pluginId, port, process, containerName);
+        log.info("Starting worker {} for plugin {} (entrypoint: {})", workerId, pluginId, pool.getEntrypoint());
+
+        WorkerProcess worker = new WorkerProcess(workerId, pluginId);
         workers.put(workerId, worker);
-        
-        log.info("Worker {} started on port {}", workerId, port);
+        pool.workerAdded();
+
+        long launchStart = System.nanoTime();
+        worker.getReady().whenComplete((ready, e) -> {
+            pool.launchFinished();
+            launching.decrementAndGet();
+            String outcome = e == null ? "ready"
+                : worker.getState() == WorkerProcess.State.TERMINATED ? "cancelled" : "failed";
+            if (outcome.equals("failed")) {
+                pool.launchFailed();
+            }
+            recordLaunch(pluginId, outcome, System.nanoTime() - launchStart);
+            capacityListener.run();
+        });
+
+        launchExecutor.execute(() -> {
+            LaunchedWorker launched;
+            try {
+                launched = launcher.launch(workerId, pluginId, pool.getEntrypoint());
+            } catch (Exception e) {
+                log.error("Error launching worker " + workerId, e);
+                worker.markFailed(e);
+                stopWorker(workerId);
+                return;
+            }
+
+            worker.setLaunched(launched);
+            if (worker.getState() == WorkerProcess.State.TERMINATED) {
+                // Stopped while the launch was in flight, before there was anything to stop
+                launched.stop();
+                return;
+            }
+            log.info("Worker {} launched at {}, waiting for readiness", workerId, launched.getAddress());
+
+            CompletableFuture<InitResponse> readiness = readinessProbe.awaitReady(workerId, launched.getAddress());
+            // A worker whose process exits fails now rather than at the readiness timeout
+            launched.onExit().thenAccept(exitCode -> {
+                readiness.completeExceptionally(new IllegalStateException(
+                    "Worker " + workerId + " exited with code " + exitCode));
+                crashed(worker, "exited with code " + exitCode);
+            });
+            readiness.whenComplete((health, e) -> {
+                if (e == null) {
+                    int concurrency = maxConcurrency(workerId, health);
+                    worker.setMaxConcurrency(concurrency);
+                    pool.setMaxConcurrency(concurrency);
+                    worker.markReady();
+                    pool.share(worker);
+                    if (accountingEnabled) {
+                        // CPU spent starting up is not charged to the first invocation
+                        launchExecutor.execute(() -> worker.setCpuBaseline(sample(worker).cpuMillis()));
+                    }
+                } else {
+                    log.error("Worker {} failed to become ready: {}", workerId, e.getMessage());
+                    worker.markFailed(e);
+                    stopWorker(workerId);
+                }
+            });
+        });
         return worker;
     }
 
     public void stopWorker(String workerId) {
+        if (removeWorker(workerId)) {
+            capacityListener.run();
+        }
+    }
+
+    /**
+     * Stops the worker without announcing the capacity it frees, for callers that take that
+     * capacity themselves
+     *
+     * @return false if the worker was already gone
+     */
+    private boolean removeWorker(String workerId) {
         WorkerProcess worker = workers.remove(workerId);
         if (worker != null) {
             log.info("Stopping worker {}", workerId);
-            try {
-                // Stop docker container
-                ProcessBuilder pb = new ProcessBuilder("docker", "stop", worker.getContainerName());
-                pb.start().waitFor();
-            } catch (Exception e) {
-                log.error("Error stopping worker " + workerId, e);
+            worker.markTerminated();
+            WorkerPool pool = pools.get(worker.getPluginId());
+            if (pool != null) {
+                pool.removeIdle(worker);
+                pool.stopped(worker);
+                pool.workerRemoved();
+            }
+            stopping.add(workerId);
+            teardownExecutor.execute(() -> {
+                try {
+                    stopLaunched(worker);
+                } finally {
+                    stopping.remove(workerId);
+                }
+            });
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The worker's advertised caps["max_concurrency"], within 1..supervisor.pool.max-concurrency
+     */
+    private int maxConcurrency(String workerId, InitResponse health) {
+        String advertised = health.getCapsOrDefault("max_concurrency", "");
+        if (advertised.isBlank()) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Math.min(maxConcurrency, Integer.parseInt(advertised.trim())));
+        } catch (NumberFormatException e) {
+            log.warn("Worker {} advertised an invalid max_concurrency '{}'; serving one invocation at a time",
+                workerId, advertised);
+            return 1;
+        }
+    }
+
+    /**
+     * Stops a worker that died or vanished on its own, unless it was stopped already
+     */
+    private void crashed(WorkerProcess worker, String reason) {
+        String workerId = worker.getWorkerId();
+        if (workers.get(workerId) != worker) {
+            return;
+        }
+        log.warn("Worker {} {}", workerId, reason);
+        WorkerPool pool = pools.get(worker.getPluginId());
+        if (pool != null) {
+            pool.crashed();
+        }
+        meterRegistry.counter("supervisor.worker.crashes", "plugin", worker.getPluginId()).increment();
+        worker.markFailed(new IllegalStateException("Worker " + reason));
+        stopWorker(workerId);
+    }
+
+    /**
+     * One pass of the reaper. Expired leases are reclaimed separately by {@link WorkerLeases}.
+     */
+    private void reap() {
+        try {
+            // Only workers ready before the listing must be in it; later launches may not show yet
+            List<WorkerProcess> ready = workers.values().stream()
+                .filter(worker -> worker.getState() == WorkerProcess.State.READY)
+                .toList();
+            Set<String> running = launcher.listRunning();
+            if (running == null) {
+                return;
+            }
+            for (String workerId : running) {
+                if (!workers.containsKey(workerId) && !stopping.contains(workerId)) {
+                    log.warn("Removing orphaned worker {}", workerId);
+                    meterRegistry.counter("supervisor.worker.orphans").increment();
+                    launcher.removeOrphan(workerId);
+                }
+            }
+            for (WorkerProcess worker : ready) {
+                if (!running.contains(worker.getWorkerId())) {
+                    crashed(worker, "is no longer running");
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error reaping workers", e);
+        }
+    }
+
+    /**
+     * Measures the invocation the worker is being released from and adds it to its pool's totals.
+     * Call before {@link #releaseWorker(String)}, while the worker is still running. Measuring may
+     * block for up to the launcher's stats timeout. On a worker serving several invocations at
+     * once, the CPU used since the previous release is charged to this one.
+     *
+     * @param acquiredAtNanos {@link System#nanoTime()} when the invocation was handed the worker
+     */
+    public WorkerUsage account(WorkerProcess worker, long acquiredAtNanos) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acquiredAtNanos);
+        ResourceUsage usage = accountingEnabled ? sample(worker) : ResourceUsage.UNKNOWN;
+        WorkerUsage charged = new WorkerUsage(
+            worker.chargeCpu(usage.cpuMillis()), usage.rssMaxBytes(), durationMillis, worker.getUseCount());
+
+        String pluginId = worker.getPluginId();
+        WorkerPool pool = pools.get(pluginId);
+        if (pool != null) {
+            pool.recordUsage(charged);
+        }
+        if (charged.cpuMillis() >= 0) {
+            DistributionSummary.builder("supervisor.worker.cpu")
+                .description("CPU time charged to an invocation")
+                .baseUnit("milliseconds")
+                .tag("plugin", pluginId)
+                .register(meterRegistry)
+                .record(charged.cpuMillis());
+        }
+        if (charged.rssMaxBytes() >= 0) {
+            DistributionSummary.builder("supervisor.worker.rss.max")
+                .description("Peak resident memory of a worker at release")
+                .baseUnit("bytes")
+                .tag("plugin", pluginId)
+                .register(meterRegistry)
+                .record(charged.rssMaxBytes());
+        }
+        if (rssBudgetBytes > 0 && charged.rssMaxBytes() > rssBudgetBytes) {
+            log.warn("Worker {} of plugin {} peaked at {} MB RSS, over the {} MB budget", worker.getWorkerId(),
+                pluginId, charged.rssMaxBytes() >> 20, rssBudgetBytes >> 20);
+            meterRegistry.counter("supervisor.worker.rss.over-budget", "plugin", pluginId).increment();
+        }
+        return charged;
+    }
+
+    /**
+     * Recent launch-to-ready times of the plugin's workers in ms, keyed p50, p95 and p99
+     */
+    public Map<String, Double> getStartupPercentiles(String pluginId) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : startupTimer(pluginId, "ready").takeSnapshot().percentileValues()) {
+            percentiles.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+        return percentiles;
+    }
+
+    public WorkerProcess getWorker(String workerId) {
+        return workers.get(workerId);
+    }
+
+    /**
+     * Plugins the configured launcher can start workers for
+     */
+    public Set<String> getLaunchablePlugins() {
+        return launcher.getPluginIds();
+    }
+
+    public Map<String, WorkerPool> getPools() {
+        return pools;
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    public int getLaunchingCount() {
+        return launching.get();
+    }
+
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    public int getMaxWorkersPerPlugin() {
+        return maxWorkersPerPlugin;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Stopping workers frees capacity; nothing may be launched into it from here on
+        shuttingDown = true;
+        reaper.shutdownNow();
+        new ArrayList<>(workers.values()).forEach(worker -> {
+            workers.remove(worker.getWorkerId());
+            worker.markTerminated();
+            stopLaunched(worker);
+        });
+        launchExecutor.shutdownNow();
+        teardownExecutor.shutdownNow();
+    }
+
+    private WorkerPool getPool(String pluginId, String entrypoint) {
+        return pools.computeIfAbsent(pluginId, id -> {
+            WorkerPool pool = new WorkerPool(id, entrypoint, defaultMinIdle, defaultMaxIdle);
+            Gauge.builder("supervisor.pool.idle", pool, WorkerPool::getIdleCount)
+                .tag("plugin", id)
+                .register(meterRegistry);
+            Gauge.builder("supervisor.pool.live", pool, WorkerPool::getLiveCount)
+                .tag("plugin", id)
+                .register(meterRegistry);
+            Gauge.builder("supervisor.pool.starting", pool, WorkerPool::getStartingCount)
+                .tag("plugin", id)
+                .register(meterRegistry);
+            return pool;
+        });
+    }
+
+    /**
+     * Launch-to-ready time; workers stopped before they were ready count as cancelled, not failed
+     */
+    private void recordLaunch(String pluginId, String outcome, long nanos) {
+        if (outcome.equals("failed")) {
+            meterRegistry.counter("supervisor.worker.launch.failures", "plugin", pluginId).increment();
+        }
+        startupTimer(pluginId, outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer startupTimer(String pluginId, String outcome) {
+        return Timer.builder("supervisor.worker.startup")
+            .description("Time from launch until the worker answers Health")
+            .tag("plugin", pluginId)
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    private ResourceUsage sample(WorkerProcess worker) {
+        LaunchedWorker launched = worker.getLaunched();
+        if (launched == null) {
+            return ResourceUsage.UNKNOWN;
+        }
+        try {
+            return launched.usage();
+        } catch (RuntimeException e) {
+            log.debug("Cannot measure worker {}: {}", worker.getWorkerId(), e.getMessage());
+            return ResourceUsage.UNKNOWN;
+        }
+    }
+
+    /**
+     * Takes a launch slot for the pool if the node and plugin limits allow it. When only the
+     * worker count is exhausted and {@code evictIdle} is set, an idle worker is stopped to make room.
+     */
+    private synchronized boolean reserveLaunch(WorkerPool pool, boolean evictIdle) {
+        if (shuttingDown) {
+            return false;
+        }
+        if (launching.get() >= maxLaunches || pool.getStartingCount() >= maxLaunchesPerPlugin) {
+            return false;
+        }
+        if (pool.getLiveCount() >= maxWorkersPerPlugin) {
+            if (!evictIdle || !evictIdleWorker(pool)) {
+                return false;
+            }
+        } else if (workers.size() >= maxWorkers) {
+            WorkerPool donor = pools.values().stream()
+                .max(Comparator.comparingInt(WorkerPool::getIdleCount))
+                .orElse(null);
+            if (!evictIdle || donor == null || !evictIdleWorker(donor)) {
+                return false;
             }
         }
+        launching.incrementAndGet();
+        pool.launchStarted();
+        return true;
     }
 
-    private String getImageName(String pluginId) {
-        return switch (pluginId) {
-            case "add_numbers" -> "java-plugin-add:latest";
-            case "multiply_numbers" -> "java-plugin-multiply:latest";
-            default -> throw new IllegalArgumentException("Unknown plugin: " + pluginId);
-        };
+    private boolean evictIdleWorker(WorkerPool pool) {
+        WorkerProcess idle = pool.pollIdle();
+        if (idle == null) {
+            return false;
+        }
+        log.info("Evicting idle worker {} of plugin {} to free capacity", idle.getWorkerId(), pool.getPluginId());
+        // The freed slot goes to the launch being reserved; announcing it would let a nested
+        // dispatch launch into it first
+        return removeWorker(idle.getWorkerId());
+    }
+
+    /**
+     * Stops the worker's container or process if the launch got that far; otherwise the
+     * launch thread stops it once it sees the worker terminated
+     */
+    private void stopLaunched(WorkerProcess worker) {
+        LaunchedWorker launched = worker.getLaunched();
+        if (launched == null) {
+            return;
+        }
+        try {
+            launched.stop();
+        } catch (Exception e) {
+            log.error("Error stopping worker " + worker.getWorkerId(), e);
+        }
     }
 
     public static class WorkerProcess {
+
+        public enum State {
+            STARTING,
+            READY,
+            FAILED,
+            TERMINATED
+        }
+
         private final String workerId;
         private final String pluginId;
-        private final int port;
-        private final Process process;
-        private final String containerName;
-        
-        public WorkerProcess(String workerId, String pluginId, int port, Process process, String containerName) {
+        private final AtomicInteger useCount = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong cpuBaselineMillis = new AtomicLong(-1);
+        private volatile long acquiredAtNanos;
+        private final CompletableFuture<WorkerProcess> ready = new CompletableFuture<>();
+        private volatile LaunchedWorker launched;
+        private volatile State state = State.STARTING;
+        private volatile boolean reusable = true;
+        private volatile int maxConcurrency = 1;
+
+        public WorkerProcess(String workerId, String pluginId) {
             this.workerId = workerId;
             this.pluginId = pluginId;
-            this.port = port;
-            this.process = process;
-            this.containerName = containerName;
         }
-        
+
         public String getWorkerId() {
             return workerId;
         }
-        
+
         public String getPluginId() {
             return pluginId;
         }
-        
-        public int getPort() {
-            return port;
+
+        /**
+         * The container or process behind this worker; null until the launcher has started it
+         */
+        public LaunchedWorker getLaunched() {
+            return launched;
+        }
+
+        void setLaunched(LaunchedWorker launched) {
+            this.launched = launched;
+        }
+
+        /**
+         * {@code host:port} the worker serves PPP on; null until it is launched
+         */
+        public String getAddress() {
+            LaunchedWorker current = launched;
+            return current == null ? null : current.getAddress();
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Completes when the worker is serving; fails if it never becomes ready or is stopped first
+         */
+        public CompletableFuture<WorkerProcess> getReady() {
+            return ready;
+        }
+
+        void markReady() {
+            if (state == State.STARTING) {
+                state = State.READY;
+            }
+            ready.complete(this);
         }
-        
-        public Process getProcess() {
-            return process;
+
+        void markFailed(Throwable cause) {
+            if (state == State.STARTING) {
+                state = State.FAILED;
+            }
+            ready.completeExceptionally(cause);
         }
-        
-        public String getContainerName() {
-            return containerName;
+
+        void markTerminated() {
+            if (state != State.FAILED) {
+                state = State.TERMINATED;
+            }
+            ready.completeExceptionally(new IllegalStateException("Worker " + workerId + " terminated"));
+        }
+
+        public int getUseCount() {
+            return useCount.get();
+        }
+
+        void markAcquired() {
+            acquiredAtNanos = System.nanoTime();
+            useCount.incrementAndGet();
+            inFlight.incrementAndGet();
+        }
+
+        /**
+         * @return invocations still running on the worker
+         */
+        int releaseSlot() {
+            return inFlight.updateAndGet(n -> Math.max(0, n - 1));
+        }
+
+        /**
+         * Drops every running invocation, returning how many there were
+         */
+        int drainSlots() {
+            return inFlight.getAndSet(0);
+        }
+
+        /**
+         * Invocations currently bound to the worker
+         */
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * Invocations the worker serves at once; 1 until its Health answer says otherwise
+         */
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        /**
+         * {@link System#nanoTime()} of the most recent acquisition; on a shared worker, see the
+         * scheduler's ticket for when a particular invocation got it
+         */
+        public long getAcquiredAtNanos() {
+            return acquiredAtNanos;
+        }
+
+        /**
+         * Sets the cumulative CPU time invocations are charged from, unless a release already did
+         */
+        void setCpuBaseline(long cpuMillis) {
+            cpuBaselineMillis.compareAndSet(-1, cpuMillis);
+        }
+
+        /**
+         * CPU used since the baseline, given the worker's cumulative CPU time, which becomes the
+         * new baseline; -1 if unknown
+         */
+        long chargeCpu(long cpuMillis) {
+            if (cpuMillis < 0) {
+                return -1;
+            }
+            long previous = cpuBaselineMillis.getAndSet(cpuMillis);
+            return previous < 0 ? cpuMillis : Math.max(0, cpuMillis - previous);
+        }
+
+        public boolean isReusable() {
+            return reusable;
+        }
+
+        public void setReusable(boolean reusable) {
+            this.reusable = reusable;
         }
     }
 }
-
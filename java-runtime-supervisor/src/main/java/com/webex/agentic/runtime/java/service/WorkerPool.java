@@ -0,0 +1,282 @@
+package com.webex.agentic.runtime.java.service;
+
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-plugin pool of idle, ready workers, plus the plugin's live and starting worker counts
+ * and its resource totals since the supervisor started.
+ *
+ * Workers that advertise a max_concurrency above one are also shared while they serve: until
+ * all their slots are taken, further invocations go to the least-loaded of them before an idle
+ * worker is taken or a new one launched. Slots are taken and returned under the pool's lock, so
+ * a worker leaves the shared set exactly when its last invocation ends.
+ */
+public class WorkerPool {
+
+    private final String pluginId;
+    private final String entrypoint;
+    private final Deque<WorkerManager.WorkerProcess> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Set<WorkerManager.WorkerProcess> shared = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicLong cpuMillis = new AtomicLong();
+    private final AtomicLong rssMaxBytes = new AtomicLong(-1);
+    private final AtomicInteger crashes = new AtomicInteger();
+    private final AtomicInteger launchFailures = new AtomicInteger();
+
+    private volatile int minIdle;
+    private volatile int maxIdle;
+    private volatile int targetIdle;
+    private volatile int maxConcurrency = 1;
+    private volatile boolean warm;
+
+    public WorkerPool(String pluginId, String entrypoint, int minIdle, int maxIdle) {
+        this.pluginId = pluginId;
+        this.entrypoint = entrypoint;
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Takes the most recently returned idle worker, or null if the pool is empty
+     */
+    public WorkerManager.WorkerProcess pollIdle() {
+        WorkerManager.WorkerProcess worker = idle.pollFirst();
+        if (worker != null) {
+            idleCount.decrementAndGet();
+        }
+        return worker;
+    }
+
+    /**
+     * Returns a worker to the pool. Fails if the pool is already at maxIdle, or at its target
+     * idle count if that is larger.
+     */
+    public boolean offerIdle(WorkerManager.WorkerProcess worker) {
+        if (idleCount.incrementAndGet() > Math.max(maxIdle, targetIdle)) {
+            idleCount.decrementAndGet();
+            return false;
+        }
+        idle.offerFirst(worker);
+        return true;
+    }
+
+    public boolean removeIdle(WorkerManager.WorkerProcess worker) {
+        if (idle.remove(worker)) {
+            idleCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a slot on the least-loaded ready worker that is serving and has one spare, or returns
+     * null. Workers that have served {@code maxUses} invocations take no more.
+     */
+    synchronized WorkerManager.WorkerProcess acquireShared(int maxUses) {
+        WorkerManager.WorkerProcess best = null;
+        for (WorkerManager.WorkerProcess worker : shared) {
+            if (worker.getState() == WorkerManager.WorkerProcess.State.READY
+                    && worker.getInFlight() < worker.getMaxConcurrency()
+                    && worker.getUseCount() < maxUses
+                    && (best == null || worker.getInFlight() < best.getInFlight())) {
+                best = worker;
+            }
+        }
+        if (best != null) {
+            acquired(best);
+        }
+        return best;
+    }
+
+    /**
+     * Starts an invocation on the worker
+     */
+    synchronized void acquired(WorkerManager.WorkerProcess worker) {
+        worker.markAcquired();
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Offers the rest of a serving worker's slots to other invocations, if it takes more than one
+     */
+    synchronized void share(WorkerManager.WorkerProcess worker) {
+        if (worker.isReusable() && worker.getMaxConcurrency() > 1 && worker.getInFlight() > 0
+                && worker.getState() == WorkerManager.WorkerProcess.State.READY) {
+            shared.add(worker);
+        }
+    }
+
+    /**
+     * Ends an invocation on the worker
+     *
+     * @return invocations still running on it; at zero it is no longer shared
+     */
+    synchronized int released(WorkerManager.WorkerProcess worker) {
+        int remaining = worker.releaseSlot();
+        inFlight.decrementAndGet();
+        if (remaining == 0) {
+            shared.remove(worker);
+        }
+        return remaining;
+    }
+
+    /**
+     * Forgets a stopped worker along with the invocations it was running
+     */
+    synchronized void stopped(WorkerManager.WorkerProcess worker) {
+        shared.remove(worker);
+        inFlight.addAndGet(-worker.drainSlots());
+    }
+
+    /**
+     * True if the pool is below the idle workers it should keep, counting workers that are already
+     * starting: minIdle once prewarmed, or the demand model's target if that is larger
+     */
+    public boolean needsWarmWorker() {
+        int floor = warm ? Math.min(minIdle, maxIdle) : 0;
+        return idleCount.get() + starting.get() < Math.max(floor, targetIdle);
+    }
+
+    void launchStarted() {
+        starting.incrementAndGet();
+    }
+
+    void launchFinished() {
+        starting.decrementAndGet();
+    }
+
+    void workerAdded() {
+        live.incrementAndGet();
+    }
+
+    void workerRemoved() {
+        live.decrementAndGet();
+    }
+
+    void recordUsage(WorkerUsage usage) {
+        invocations.incrementAndGet();
+        if (usage.cpuMillis() > 0) {
+            cpuMillis.addAndGet(usage.cpuMillis());
+        }
+        rssMaxBytes.accumulateAndGet(usage.rssMaxBytes(), Math::max);
+    }
+
+    void crashed() {
+        crashes.incrementAndGet();
+    }
+
+    void launchFailed() {
+        launchFailures.incrementAndGet();
+    }
+
+    public String getPluginId() {
+        return pluginId;
+    }
+
+    public String getEntrypoint() {
+        return entrypoint;
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    public int getStartingCount() {
+        return starting.get();
+    }
+
+    /**
+     * Invocations running on this plugin's workers
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Concurrent invocations the plugin's most recently started worker advertised
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Workers of this plugin that exist on the node: starting, idle or bound to an invocation
+     */
+    public int getLiveCount() {
+        return live.get();
+    }
+
+    /**
+     * Invocations released from this plugin's workers
+     */
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    /**
+     * CPU time charged to this plugin's invocations, where it could be measured
+     */
+    public long getCpuMillis() {
+        return cpuMillis.get();
+    }
+
+    /**
+     * Highest peak RSS seen on any of this plugin's workers; -1 if never measured
+     */
+    public long getRssMaxBytes() {
+        return rssMaxBytes.get();
+    }
+
+    /**
+     * Workers that exited on their own, after launch
+     */
+    public int getCrashes() {
+        return crashes.get();
+    }
+
+    public int getLaunchFailures() {
+        return launchFailures.get();
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Idle workers the {@link DemandModel} asks for; 0 until it has seen demand
+     */
+    public int getTargetIdle() {
+        return targetIdle;
+    }
+
+    void setTargetIdle(int targetIdle) {
+        this.targetIdle = targetIdle;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public void configure(int minIdle, int maxIdle) {
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+        this.warm = true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.webex.agentic.runtime.java.service;
+
+import com.google.protobuf.Empty;
+import com.webex.agentic.proto.ppp.InitResponse;
+import com.webex.agentic.proto.ppp.ToolPluginGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Polls a worker's ToolPlugin.Health RPC with exponential backoff until it is serving
+ */
+@Service
+public class WorkerReadinessProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerReadinessProbe.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "worker-readiness");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration timeout;
+
+    public WorkerReadinessProbe(
+            @Value("${supervisor.readiness.initial-backoff:50ms}") Duration initialBackoff,
+            @Value("${supervisor.readiness.max-backoff:1s}") Duration maxBackoff,
+            @Value("${supervisor.readiness.timeout:60s}") Duration timeout) {
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Completes with the worker's Health response once it reports ok, or
+     * exceptionally if it is not serving within the readiness timeout.
+     */
+    public CompletableFuture<InitResponse> awaitReady(String workerId, String address) {
+        CompletableFuture<InitResponse> result = new CompletableFuture<>();
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(address)
+            .usePlaintext()
+            .directExecutor()
+            .build();
+        result.whenComplete((response, e) -> channel.shutdownNow());
+
+        long startNanos = System.nanoTime();
+        probe(new Attempt(workerId, channel, result, startNanos, startNanos + timeout.toNanos()),
+            initialBackoff.toMillis());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void probe(Attempt attempt, long backoffMillis) {
+        if (attempt.result.isDone()) {
+            return;
+        }
+
+        ToolPluginGrpc.newStub(attempt.channel)
+            .withDeadlineAfter(Math.max(backoffMillis, maxBackoff.toMillis()), TimeUnit.MILLISECONDS)
+            .health(Empty.getDefaultInstance(), new StreamObserver<>() {
+                @Override
+                public void onNext(InitResponse response) {
+                    if (response.getOk()) {
+                        log.info("Worker {} ready after {} ms", attempt.workerId,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - attempt.startNanos));
+                        attempt.result.complete(response);
+                    } else {
+                        retry(attempt, backoffMillis);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.debug("Worker {} not ready yet: {}", attempt.workerId, t.getMessage());
+                    retry(attempt, backoffMillis);
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+    }
+
+    private void retry(Attempt attempt, long backoffMillis) {
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) - attempt.deadlineNanos > 0) {
+            attempt.result.completeExceptionally(new TimeoutException(
+                "Worker " + attempt.workerId + " not ready within " + timeout.toMillis() + " ms"));
+            return;
+        }
+
+        long nextBackoff = Math.min(backoffMillis * 2, maxBackoff.toMillis());
+        scheduler.schedule(() -> {
+            // Skip the channel's own reconnect backoff so every poll actually dials the worker
+            attempt.channel.resetConnectBackoff();
+            probe(attempt, nextBackoff);
+        }, backoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private record Attempt(
+            String workerId,
+            ManagedChannel channel,
+            CompletableFuture<InitResponse> result,
+            long startNanos,
+            long deadlineNanos) {
+    }
+}
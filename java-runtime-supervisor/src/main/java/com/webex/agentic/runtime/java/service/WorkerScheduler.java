@@ -0,0 +1,387 @@
+package com.webex.agentic.runtime.java.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Admission control for AllocateWorker.
+ *
+ * Requests that cannot get a worker within the node's limits wait in a bounded queue
+ * ordered by priority, then soft deadline, then arrival. Whenever capacity frees up the
+ * queue is drained in that order; a full queue sheds its lowest-ranked request.
+ */
+@Service
+public class WorkerScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerScheduler.class);
+
+    /**
+     * Assumed time a worker stays bound to one invocation until releases have been observed
+     */
+    private static final long INITIAL_SERVICE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double SERVICE_TIME_ALPHA = 0.2;
+
+    private static final Comparator<Ticket> ORDER = Comparator
+        .comparingDouble((Ticket t) -> -t.priority)
+        .thenComparingLong(t -> t.deadlineNanos)
+        .thenComparingLong(t -> t.seq);
+
+    private final WorkerManager workerManager;
+    private final DemandModel demandModel;
+    private final MeterRegistry meterRegistry;
+    private final int maxQueueDepth;
+    private final Duration defaultDeadline;
+
+    private final TreeSet<Ticket> queue = new TreeSet<>(ORDER);
+    private final Map<String, Integer> queuedPerPlugin = new HashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong ticketCounter = new AtomicLong();
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    private volatile long avgServiceNanos = INITIAL_SERVICE_NANOS;
+
+    public WorkerScheduler(
+            WorkerManager workerManager,
+            DemandModel demandModel,
+            MeterRegistry meterRegistry,
+            @Value("${supervisor.scheduler.max-queue-depth:256}") int maxQueueDepth,
+            @Value("${supervisor.scheduler.default-deadline:30s}") Duration defaultDeadline) {
+        this.workerManager = workerManager;
+        this.demandModel = demandModel;
+        this.meterRegistry = meterRegistry;
+        this.maxQueueDepth = maxQueueDepth;
+        this.defaultDeadline = defaultDeadline;
+        workerManager.setCapacityListener(this::dispatch);
+
+        Gauge.builder("supervisor.scheduler.queue.depth", this, WorkerScheduler::getQueueDepth)
+            .description("Allocations waiting for capacity")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Requests a worker. The returned ticket's grant completes with the worker as soon as
+     * capacity allows, or exceptionally if the request is shed, expires or is cancelled.
+     *
+     * @param priority    0.0..1.0, higher is served first
+     * @param softDeadline how long the request may wait in the queue; null for the default
+     */
+    public Ticket submit(String pluginId, String entrypoint, boolean forceFreshProcess,
+                         double priority, Duration softDeadline) {
+        Duration deadline = softDeadline != null ? softDeadline : defaultDeadline;
+        if (!forceFreshProcess) {
+            demandModel.arrived(pluginId);
+        }
+        long seq = ticketCounter.incrementAndGet();
+        Ticket ticket = new Ticket("ticket-" + seq, seq, pluginId, entrypoint, forceFreshProcess,
+            priority, System.nanoTime() + deadline.toNanos());
+
+        WorkerManager.WorkerProcess granted = null;
+        Ticket shed = null;
+        boolean rejected = false;
+        synchronized (queue) {
+            // Same-plugin requests already waiting keep their place
+            if (!queuedPerPlugin.containsKey(pluginId)) {
+                granted = workerManager.tryAcquire(pluginId, entrypoint, forceFreshProcess);
+            }
+            if (granted == null) {
+                if (queue.size() >= maxQueueDepth) {
+                    Ticket lowest = queue.last();
+                    if (ORDER.compare(ticket, lowest) < 0) {
+                        dequeue(lowest);
+                        shed = lowest;
+                    } else {
+                        rejected = true;
+                    }
+                }
+                if (!rejected) {
+                    queue.add(ticket);
+                    queuedPerPlugin.merge(pluginId, 1, Integer::sum);
+                    tickets.put(ticket.id, ticket);
+                    ticket.position = queue.headSet(ticket).size() + 1;
+                }
+            }
+        }
+
+        if (shed != null) {
+            log.warn("Shedding queued {} for plugin {}: queue full", shed.id, shed.pluginId);
+            tickets.remove(shed.id);
+            recordRejected("shed");
+            shed.grant.completeExceptionally(new RejectedExecutionException("Shed by higher-priority request: queue full"));
+        }
+        if (rejected) {
+            log.warn("Rejecting allocation for plugin {}: queue full ({})", pluginId, maxQueueDepth);
+            recordRejected("queue_full");
+            ticket.grant.completeExceptionally(new RejectedExecutionException("Queue full (" + maxQueueDepth + ")"));
+        } else if (granted != null) {
+            tickets.put(ticket.id, ticket);
+            ticket.granted(granted);
+            ticket.grant.complete(granted);
+        } else {
+            log.info("Queued {} for plugin {} at position {} (priority: {})", ticket.id, pluginId, ticket.position, priority);
+            CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> expire(ticket));
+        }
+        return ticket;
+    }
+
+    public Ticket getTicket(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    /**
+     * Forgets the ticket once the caller refers to its worker directly
+     */
+    public void claim(Ticket ticket) {
+        tickets.remove(ticket.id);
+    }
+
+    /**
+     * Releases a worker handle, which is either a worker id or the id of a ticket. A ticket
+     * still waiting is withdrawn; a granted one releases its slot on the worker. Handles are
+     * ticket ids, since a worker serving several invocations at once is bound to one ticket each.
+     *
+     * @return the released worker, or null if none had been bound
+     */
+    public WorkerManager.WorkerProcess release(String handleId) {
+        Ticket ticket = tickets.remove(handleId);
+        WorkerManager.WorkerProcess worker;
+        long grantedNanos = 0;
+        if (ticket != null) {
+            synchronized (queue) {
+                dequeue(ticket);
+            }
+            ticket.grant.completeExceptionally(new CancellationException("Released while queued"));
+            worker = ticket.worker;
+            grantedNanos = ticket.grantedNanos;
+        } else {
+            worker = workerManager.getWorker(handleId);
+        }
+
+        if (worker != null) {
+            long serviceNanos = System.nanoTime() - (grantedNanos != 0 ? grantedNanos : worker.getAcquiredAtNanos());
+            recordServiceTime(serviceNanos);
+            demandModel.served(worker.getPluginId(), serviceNanos);
+        }
+        return worker;
+    }
+
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Expected wait for a ticket at the given queue position
+     */
+    public Duration estimateDelay(int position) {
+        int slots = Math.max(1, workerManager.getMaxWorkersPerPlugin());
+        long rounds = (position + slots - 1) / slots;
+        return Duration.ofNanos(rounds * avgServiceNanos);
+    }
+
+    /**
+     * Hands freed capacity to queued tickets. Concurrent and re-entrant calls collapse into
+     * extra passes of the thread already dispatching.
+     */
+    public void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            drain();
+        } while (dispatchRequests.decrementAndGet() != 0);
+    }
+
+    private void drain() {
+        List<Runnable> notifications = new ArrayList<>();
+        boolean idle;
+        synchronized (queue) {
+            Set<String> blocked = new HashSet<>();
+            int position = 0;
+            Iterator<Ticket> it = queue.iterator();
+            while (it.hasNext()) {
+                Ticket ticket = it.next();
+                WorkerManager.WorkerProcess worker = blocked.contains(ticket.pluginId)
+                    ? null
+                    : workerManager.tryAcquire(ticket.pluginId, ticket.entrypoint, ticket.forceFreshProcess);
+
+                if (worker != null) {
+                    it.remove();
+                    queuedPerPlugin.computeIfPresent(ticket.pluginId, (id, n) -> n > 1 ? n - 1 : null);
+                    ticket.granted(worker);
+                    notifications.add(() -> {
+                        log.info("Dequeued {} for plugin {} onto worker {}", ticket.id, ticket.pluginId, worker.getWorkerId());
+                        Timer.builder("supervisor.scheduler.queue.wait")
+                            .description("Time allocations spent queued before a worker was granted")
+                            .tag("plugin", ticket.pluginId)
+                            .publishPercentiles(0.5, 0.95, 0.99)
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - ticket.enqueuedNanos, TimeUnit.NANOSECONDS);
+                        ticket.grant.complete(worker);
+                    });
+                } else {
+                    // Lower-ranked tickets of the same plugin must not overtake this one
+                    blocked.add(ticket.pluginId);
+                    position++;
+                    if (ticket.position != position) {
+                        ticket.position = position;
+                        notifications.add(ticket::notifyPosition);
+                    }
+                }
+            }
+            idle = queue.isEmpty();
+        }
+
+        notifications.forEach(Runnable::run);
+        if (idle) {
+            workerManager.replenish();
+        }
+    }
+
+    private void expire(Ticket ticket) {
+        boolean removed;
+        synchronized (queue) {
+            removed = dequeue(ticket);
+        }
+        if (removed) {
+            log.warn("{} for plugin {} not scheduled within its soft deadline", ticket.id, ticket.pluginId);
+            tickets.remove(ticket.id);
+            recordRejected("expired");
+            ticket.grant.completeExceptionally(new TimeoutException("Not scheduled within soft deadline"));
+            dispatch();
+        }
+    }
+
+    private boolean dequeue(Ticket ticket) {
+        if (!queue.remove(ticket)) {
+            return false;
+        }
+        queuedPerPlugin.computeIfPresent(ticket.pluginId, (id, n) -> n > 1 ? n - 1 : null);
+        return true;
+    }
+
+    private void recordRejected(String reason) {
+        meterRegistry.counter("supervisor.scheduler.rejected", "reason", reason).increment();
+    }
+
+    private void recordServiceTime(long nanos) {
+        if (nanos > 0) {
+            avgServiceNanos = (long) (SERVICE_TIME_ALPHA * nanos + (1 - SERVICE_TIME_ALPHA) * avgServiceNanos);
+        }
+    }
+
+    /**
+     * A pending or granted allocation request
+     */
+    public static class Ticket {
+
+        private final String id;
+        private final long seq;
+        private final String pluginId;
+        private final String entrypoint;
+        private final boolean forceFreshProcess;
+        private final double priority;
+        private final long deadlineNanos;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<WorkerManager.WorkerProcess> grant = new CompletableFuture<>();
+        private volatile WorkerManager.WorkerProcess worker;
+        private volatile long grantedNanos;
+        private volatile int position;
+        private volatile Consumer<Ticket> positionListener;
+
+        Ticket(String id, long seq, String pluginId, String entrypoint, boolean forceFreshProcess,
+               double priority, long deadlineNanos) {
+            this.id = id;
+            this.seq = seq;
+            this.pluginId = pluginId;
+            this.entrypoint = entrypoint;
+            this.forceFreshProcess = forceFreshProcess;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getPluginId() {
+            return pluginId;
+        }
+
+        /**
+         * Completes with the granted worker, which may still be STARTING
+         */
+        public CompletableFuture<WorkerManager.WorkerProcess> getGrant() {
+            return grant;
+        }
+
+        /**
+         * The granted worker, or null while the ticket is queued
+         */
+        public WorkerManager.WorkerProcess getWorker() {
+            return worker;
+        }
+
+        /**
+         * {@link System#nanoTime()} when the worker was granted; 0 while the ticket is queued
+         */
+        public long getGrantedNanos() {
+            return grantedNanos;
+        }
+
+        private void granted(WorkerManager.WorkerProcess worker) {
+            grantedNanos = System.nanoTime();
+            this.worker = worker;
+        }
+
+        /**
+         * 1-based rank among queued tickets that could not be served yet
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Called with this ticket whenever its queue position changes
+         */
+        public void setPositionListener(Consumer<Ticket> positionListener) {
+            this.positionListener = positionListener;
+        }
+
+        private void notifyPosition() {
+            Consumer<Ticket> listener = positionListener;
+            if (listener != null && !grant.isDone()) {
+                listener.accept(this);
+            }
+        }
+    }
+}
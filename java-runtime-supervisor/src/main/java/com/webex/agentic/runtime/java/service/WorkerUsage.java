@@ -0,0 +1,12 @@
+package com.webex.agentic.runtime.java.service;
+
+/**
+ * What one invocation cost on a worker, as reported in {@code ReleaseWorkerResponse.stats}
+ *
+ * @param cpuMillis      CPU time the worker used since it became ready or was last released; -1 if unknown
+ * @param rssMaxBytes    peak resident memory of the worker over its lifetime; -1 if unknown
+ * @param durationMillis wall time from acquisition to release
+ * @param invocations    invocations the worker has served, this one included
+ */
+public record WorkerUsage(long cpuMillis, long rssMaxBytes, long durationMillis, int invocations) {
+}
@@ -0,0 +1,101 @@
+package com.webex.agentic.runtime.java.service;
+
+import com.webex.agentic.proto.ppp.InitResponse;
+import com.webex.agentic.runtime.java.launcher.LaunchedWorker;
+import com.webex.agentic.runtime.java.launcher.WorkerLauncher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkerSchedulerTest {
+
+    private final AtomicInteger launches = new AtomicInteger();
+    private WorkerManager workerManager;
+    private WorkerScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        WorkerLauncher launcher = new WorkerLauncher() {
+            @Override
+            public LaunchedWorker launch(String workerId, String pluginId, String entrypoint) {
+                launches.incrementAndGet();
+                return new LaunchedWorker() {
+                    @Override
+                    public String getAddress() {
+                        return workerId + ":50051";
+                    }
+
+                    @Override
+                    public CompletableFuture<Integer> onExit() {
+                        return new CompletableFuture<>();
+                    }
+
+                    @Override
+                    public void stop() {
+                    }
+                };
+            }
+
+            @Override
+            public Set<String> getPluginIds() {
+                return Set.of("a", "b", "c");
+            }
+        };
+        WorkerReadinessProbe readinessProbe = new WorkerReadinessProbe(
+                Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofSeconds(5)) {
+            @Override
+            public CompletableFuture<InitResponse> awaitReady(String workerId, String address) {
+                return CompletableFuture.completedFuture(InitResponse.newBuilder().setOk(true).build());
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        workerManager = new WorkerManager(launcher, readinessProbe, meterRegistry,
+            0, 4, 100, 1, 1, 8, 4, 2, false, DataSize.ofBytes(0), 1, Duration.ofSeconds(30), false);
+        DemandModel demandModel = new DemandModel(workerManager, meterRegistry, false,
+            Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(10), 2.0, 0.01, Duration.ofMinutes(2));
+        scheduler = new WorkerScheduler(workerManager, demandModel, meterRegistry, 16, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerManager.shutdown();
+    }
+
+    @Test
+    void evictingAnIdleWorkerDoesNotHandItsSlotToTheQueueAsWell() throws Exception {
+        WorkerScheduler.Ticket first = scheduler.submit("a", "a.Main", false, 0.5, null);
+        WorkerManager.WorkerProcess worker = first.getGrant().get(5, TimeUnit.SECONDS);
+        worker.getReady().get(5, TimeUnit.SECONDS);
+
+        WorkerScheduler.Ticket queued = scheduler.submit("b", "b.Main", false, 0.5, null);
+        assertThat(queued.getGrant()).isNotDone();
+
+        // Return the worker to its pool without serving the queue, leaving one idle worker
+        // and one queued ticket
+        workerManager.setCapacityListener(() -> { });
+        scheduler.release(first.getId());
+        workerManager.releaseWorker(worker.getWorkerId());
+        workerManager.setCapacityListener(scheduler::dispatch);
+        assertThat(workerManager.getPools().get("a").getIdleCount()).isEqualTo(1);
+
+        WorkerScheduler.Ticket evicting = scheduler.submit("c", "c.Main", false, 0.5, null);
+        WorkerManager.WorkerProcess launched = evicting.getGrant().get(5, TimeUnit.SECONDS);
+        launched.getReady().get(5, TimeUnit.SECONDS);
+
+        assertThat(launched.getPluginId()).isEqualTo("c");
+        assertThat(workerManager.getWorkerCount()).isEqualTo(1);
+        assertThat(launches).hasValue(2);
+        assertThat(queued.getGrant()).isNotDone();
+        assertThat(scheduler.getQueueDepth()).isEqualTo(1);
+    }
+}
@@ -1,15 +1,32 @@
 package com.webex.agentic.gateway.controller;
 
+import com.webex.agentic.common.model.BatchItemResult;
+import com.webex.agentic.common.model.BatchOperation;
+import com.webex.agentic.common.model.CalculationEvent;
 import com.webex.agentic.common.model.CalculationRequest;
 import com.webex.agentic.common.model.CalculationResult;
 import com.webex.agentic.gateway.service.PluginExecutionService;
+import com.webex.agentic.gateway.service.PluginRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Reactive REST controller for calculation operations using WebFlux
+ * Reactive REST controller for calculation operations using WebFlux.
+ *
+ * Every operation also has a streaming variant under {@code /stream}, answered as Server-Sent
+ * Events or NDJSON depending on the Accept header, which reports progress as it happens.
  */
 @RestController
 @RequestMapping("/api/v1/calculate")
@@ -17,34 +34,167 @@ public class CalculationController {
     
     private static final Logger log = LoggerFactory.getLogger(CalculationController.class);
 
+    /**
+     * Agent session the call belongs to; calls of one session reuse the same worker per plugin
+     */
+    public static final String SESSION_HEADER = "X-Session-Id";
+
+    /**
+     * Milliseconds the caller will wait for the result; bounds every call made for the request
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final Map<String, String> OPERATIONS = Map.of(
+        "add", "add_numbers",
+        "multiply", "multiply_numbers",
+        "subtract", "subtract_numbers",
+        "divide", "divide_numbers");
+
     private final PluginExecutionService executionService;
+    private final PluginRegistry pluginRegistry;
+    private final CallerDeadlines deadlines;
+    private final int maxBatchOperations;
     
-    public CalculationController(PluginExecutionService executionService) {
+    public CalculationController(
+            PluginExecutionService executionService,
+            PluginRegistry pluginRegistry,
+            CallerDeadlines deadlines,
+            @Value("${gateway.batch.max-operations:1000}") int maxBatchOperations) {
         this.executionService = executionService;
+        this.pluginRegistry = pluginRegistry;
+        this.deadlines = deadlines;
+        this.maxBatchOperations = maxBatchOperations;
     }
 
     @PostMapping("/add")
-    public Mono<CalculationResult> add(@RequestBody CalculationRequest request) {
-        return executionService.executeCalculation("add_numbers", request)
+    public Mono<CalculationResult> add(@RequestBody CalculationRequest request,
+                                       @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                       @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return deadlines.withDeadline(executionService.executeCalculation("add_numbers", request, sessionId), timeoutMillis)
                 .doOnError(e -> log.error("Error executing add operation", e));
     }
 
     @PostMapping("/multiply")
-    public Mono<CalculationResult> multiply(@RequestBody CalculationRequest request) {
-        return executionService.executeCalculation("multiply_numbers", request)
+    public Mono<CalculationResult> multiply(@RequestBody CalculationRequest request,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return deadlines.withDeadline(executionService.executeCalculation("multiply_numbers", request, sessionId), timeoutMillis)
                 .doOnError(e -> log.error("Error executing multiply operation", e));
     }
 
     @PostMapping("/subtract")
-    public Mono<CalculationResult> subtract(@RequestBody CalculationRequest request) {
-        return executionService.executeCalculation("subtract_numbers", request)
+    public Mono<CalculationResult> subtract(@RequestBody CalculationRequest request,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return deadlines.withDeadline(executionService.executeCalculation("subtract_numbers", request, sessionId), timeoutMillis)
                 .doOnError(e -> log.error("Error executing subtract operation", e));
     }
 
     @PostMapping("/divide")
-    public Mono<CalculationResult> divide(@RequestBody CalculationRequest request) {
-        return executionService.executeCalculation("divide_numbers", request)
+    public Mono<CalculationResult> divide(@RequestBody CalculationRequest request,
+                                          @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                          @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return deadlines.withDeadline(executionService.executeCalculation("divide_numbers", request, sessionId), timeoutMillis)
                 .doOnError(e -> log.error("Error executing divide operation", e));
     }
-}
 
+    /**
+     * Executes many operations in one request; operations may be given as "add" or as any registered
+     * primitive such as "add_numbers"
+     */
+    @PostMapping("/batch")
+    public Mono<List<BatchItemResult>> batch(@RequestBody List<BatchOperation> operations,
+                                             @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                             @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return Mono.defer(() -> deadlines.withDeadline(executionService.executeBatch(normalize(operations), sessionId), timeoutMillis))
+                .doOnError(e -> log.error("Error executing batch of {} operations", operations.size(), e));
+    }
+
+    /**
+     * Streams the call's progress: {@code progress} events, then one {@code completed} or {@code failed}
+     * event. Accepts the same operations as /batch. Passing the deadline ends the stream with a failed event.
+     */
+    @PostMapping(value = "/{operation}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CalculationEvent>> streamEvents(@PathVariable String operation,
+                                                                @RequestBody CalculationRequest request,
+                                                                @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                                                @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return stream(operation, request, sessionId, timeoutMillis)
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+    }
+
+    /**
+     * The same stream as one JSON event per line
+     */
+    @PostMapping(value = "/{operation}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CalculationEvent> streamNdjson(@PathVariable String operation,
+                                               @RequestBody CalculationRequest request,
+                                               @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                               @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return stream(operation, request, sessionId, timeoutMillis);
+    }
+
+    /**
+     * Streams each batch entry's result as soon as it is known rather than all of them in input order
+     */
+    @PostMapping(value = "/batch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BatchItemResult>> batchEvents(@RequestBody List<BatchOperation> operations,
+                                                              @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                                              @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return streamBatch(operations, sessionId, timeoutMillis)
+                .map(item -> ServerSentEvent.builder(item)
+                    .id(String.valueOf(item.getIndex()))
+                    .event(item.getError() == null ? CalculationEvent.COMPLETED : CalculationEvent.FAILED)
+                    .build());
+    }
+
+    @PostMapping(value = "/batch/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResult> batchNdjson(@RequestBody List<BatchOperation> operations,
+                                             @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                                             @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        return streamBatch(operations, sessionId, timeoutMillis);
+    }
+
+    private Flux<CalculationEvent> stream(String operation, CalculationRequest request, String sessionId, Long timeoutMillis) {
+        String primitive = primitive(operation);
+        if (primitive == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown operation: " + operation));
+        }
+        return deadlines.withDeadline(executionService.streamCalculation(primitive, request, sessionId), timeoutMillis);
+    }
+
+    private Flux<BatchItemResult> streamBatch(List<BatchOperation> operations, String sessionId, Long timeoutMillis) {
+        return Flux.defer(() -> deadlines.withDeadline(executionService.streamBatch(normalize(operations), sessionId), timeoutMillis))
+                .doOnError(e -> log.error("Error streaming batch of {} operations", operations.size(), e));
+    }
+
+    /**
+     * The batch with every operation resolved to its primitive
+     *
+     * @throws ResponseStatusException 400 if the batch is empty, too large or names an unknown operation
+     */
+    private List<BatchOperation> normalize(List<BatchOperation> operations) {
+        if (operations.isEmpty() || operations.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Batch must contain between 1 and " + maxBatchOperations + " operations");
+        }
+
+        List<BatchOperation> normalized = new ArrayList<>(operations.size());
+        for (BatchOperation op : operations) {
+            String primitive = primitive(op.getOperation());
+            if (primitive == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown operation: " + op.getOperation());
+            }
+            normalized.add(new BatchOperation(primitive, op.getOperand1(), op.getOperand2()));
+        }
+        return normalized;
+    }
+
+    /**
+     * The registered primitive for "add" etc. or for a primitive id such as "add_numbers"; null if there is none
+     */
+    private String primitive(String operation) {
+        String primitive = OPERATIONS.getOrDefault(operation, operation);
+        return pluginRegistry.contains(primitive) ? primitive : null;
+    }
+}
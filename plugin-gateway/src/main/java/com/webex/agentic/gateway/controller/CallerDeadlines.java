@@ -0,0 +1,64 @@
+package com.webex.agentic.gateway.controller;
+
+import com.webex.agentic.gateway.grpc.Deadlines;
+import io.grpc.Status;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Applies the caller's X-Request-Timeout header to a call, capped at gateway.deadlines.max.
+ * Without the header the primitive's default deadline applies.
+ */
+@Component
+public class CallerDeadlines {
+
+    private final Duration maxTimeout;
+
+    public CallerDeadlines(@Value("${gateway.deadlines.max:5m}") Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    /**
+     * Runs the call under the caller's deadline and answers 504 once it has passed
+     */
+    public <T> Mono<T> withDeadline(Mono<T> call, Long timeoutMillis) {
+        if (timeoutMillis != null && timeoutMillis <= 0) {
+            return Mono.error(invalidTimeout());
+        }
+        return call.onErrorMap(
+                e -> Status.fromThrowable(e).getCode() == Status.Code.DEADLINE_EXCEEDED,
+                e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded", e))
+            .contextWrite(deadline(timeoutMillis));
+    }
+
+    /**
+     * Runs a streamed call under the caller's deadline; the stream reports a passed deadline itself
+     */
+    public <T> Flux<T> withDeadline(Flux<T> call, Long timeoutMillis) {
+        if (timeoutMillis != null && timeoutMillis <= 0) {
+            return Flux.error(invalidTimeout());
+        }
+        return call.contextWrite(deadline(timeoutMillis));
+    }
+
+    private Function<Context, Context> deadline(Long timeoutMillis) {
+        if (timeoutMillis == null) {
+            return Function.identity();
+        }
+        Duration timeout = Duration.ofMillis(timeoutMillis);
+        return Deadlines.within(timeout.compareTo(maxTimeout) < 0 ? timeout : maxTimeout);
+    }
+
+    private static ResponseStatusException invalidTimeout() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            CalculationController.TIMEOUT_HEADER + " must be a positive number of milliseconds");
+    }
+}
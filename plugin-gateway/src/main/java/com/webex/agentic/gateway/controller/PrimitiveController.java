@@ -0,0 +1,63 @@
+package com.webex.agentic.gateway.controller;
+
+import com.webex.agentic.gateway.service.PluginExecutionService;
+import com.webex.agentic.gateway.service.PluginRegistry;
+import com.webex.agentic.gateway.service.SchemaViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import static com.webex.agentic.gateway.controller.CalculationController.SESSION_HEADER;
+import static com.webex.agentic.gateway.controller.CalculationController.TIMEOUT_HEADER;
+
+/**
+ * Invokes any registered primitive: the request body is its JSON arguments, the response body
+ * the plugin's JSON output.
+ *
+ * Arguments are passed to the plugin as sent, after being checked against the primitive's input
+ * schema from the registry. Rejected arguments are answered 400 before a worker is allocated.
+ */
+@RestController
+@RequestMapping("/api/v1/primitives")
+public class PrimitiveController {
+
+    private static final Logger log = LoggerFactory.getLogger(PrimitiveController.class);
+
+    private final PluginExecutionService executionService;
+    private final PluginRegistry pluginRegistry;
+    private final CallerDeadlines deadlines;
+
+    public PrimitiveController(
+            PluginExecutionService executionService,
+            PluginRegistry pluginRegistry,
+            CallerDeadlines deadlines) {
+        this.executionService = executionService;
+        this.pluginRegistry = pluginRegistry;
+        this.deadlines = deadlines;
+    }
+
+    /**
+     * @param version version of the primitive to invoke; its default version if not given
+     */
+    @PostMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<byte[]> invoke(@PathVariable String id,
+                               @RequestParam(required = false) String version,
+                               @RequestBody(required = false) byte[] arguments,
+                               @RequestHeader(value = SESSION_HEADER, required = false) String sessionId,
+                               @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis) {
+        try {
+            pluginRegistry.getPlugin(id, version);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage()));
+        }
+        byte[] body = arguments != null ? arguments : new byte[0];
+        return deadlines.withDeadline(executionService.executePrimitive(id, version, body, sessionId), timeoutMillis)
+                .onErrorMap(SchemaViolationException.class,
+                    e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e))
+                .doOnError(e -> !(e instanceof ResponseStatusException), e -> log.error("Error invoking {}", id, e));
+    }
+}
@@ -0,0 +1,18 @@
+package com.webex.agentic.gateway.grpc;
+
+import io.grpc.ManagedChannelBuilder;
+
+/**
+ * Source of channel builders for supervisor and worker targets.
+ *
+ * Callers still apply their own executor, keepalive and idle settings; the factory only
+ * decides the transport, so tests and benchmarks can swap the network for in-process channels.
+ */
+@FunctionalInterface
+public interface ChannelFactory {
+
+    /** Target prefix for servers registered with {@code InProcessServerBuilder} in this JVM */
+    String IN_PROCESS_PREFIX = "inprocess:";
+
+    ManagedChannelBuilder<?> forTarget(String target);
+}
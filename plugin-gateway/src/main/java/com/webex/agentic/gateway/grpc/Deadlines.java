@@ -0,0 +1,68 @@
+package com.webex.agentic.gateway.grpc;
+
+import io.grpc.Deadline;
+import io.grpc.stub.AbstractStub;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Carries a request's deadline in the Reactor context, so every gRPC call made on its behalf
+ * (AllocateWorker, WatchWorker, Init, Invoke) is bound to the time the caller has left.
+ *
+ * Deadlines are only ever shortened: a deadline set further downstream (e.g. from an HTTP header)
+ * wins over a later default, and an earlier one wins over a later one.
+ */
+public final class Deadlines {
+
+    private static final Class<Deadline> KEY = Deadline.class;
+
+    private Deadlines() {
+    }
+
+    /**
+     * Context update that sets the deadline to {@code timeout} from subscription, unless an earlier one is set
+     */
+    public static Function<Context, Context> within(Duration timeout) {
+        return context -> {
+            Deadline deadline = Deadline.after(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            Deadline current = get(context);
+            return context.put(KEY, current == null ? deadline : current.minimum(deadline));
+        };
+    }
+
+    /**
+     * Context update that sets the deadline to {@code timeout} from subscription if none is set yet
+     */
+    public static Function<Context, Context> orDefault(Duration timeout) {
+        return context -> context.hasKey(KEY)
+            ? context
+            : context.put(KEY, Deadline.after(timeout.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * The request's deadline, or null if it has none
+     */
+    public static Deadline get(ContextView context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    /**
+     * Time left until the request's deadline, or null if it has none
+     */
+    public static Duration remaining(ContextView context) {
+        Deadline deadline = get(context);
+        return deadline == null ? null : Duration.ofNanos(Math.max(0, deadline.timeRemaining(TimeUnit.NANOSECONDS)));
+    }
+
+    /**
+     * The stub with the request's deadline applied, or the stub itself if the request has none
+     */
+    public static <S extends AbstractStub<S>> S bind(S stub, ContextView context) {
+        Deadline deadline = get(context);
+        return deadline == null ? stub : stub.withDeadline(deadline);
+    }
+}
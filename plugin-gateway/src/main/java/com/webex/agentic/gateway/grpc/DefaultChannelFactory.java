@@ -0,0 +1,21 @@
+package com.webex.agentic.gateway.grpc;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves {@code host:port} targets with the default name resolver over the network transport,
+ * and {@code inprocess:<name>} targets to servers hosted in this JVM
+ */
+@Service
+public class DefaultChannelFactory implements ChannelFactory {
+
+    @Override
+    public ManagedChannelBuilder<?> forTarget(String target) {
+        if (target.startsWith(IN_PROCESS_PREFIX)) {
+            return InProcessChannelBuilder.forName(target.substring(IN_PROCESS_PREFIX.length()));
+        }
+        return ManagedChannelBuilder.forTarget(target);
+    }
+}
@@ -0,0 +1,144 @@
+package com.webex.agentic.gateway.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bridges async gRPC stub calls into Reactor publishers.
+ *
+ * Cancelling the subscription cancels the underlying gRPC call, and streaming
+ * calls use manual flow control so messages are only requested as downstream demands them.
+ */
+public final class ReactiveCalls {
+
+    private ReactiveCalls() {
+    }
+
+    /**
+     * Adapts a unary async stub call, e.g. {@code obs -> stub.init(request, obs)}
+     */
+    public static <T> Mono<T> unary(Consumer<StreamObserver<T>> call) {
+        return Mono.create(sink -> call.accept(new ClientResponseObserver<Object, T>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+                sink.onCancel(() -> requestStream.cancel("Subscriber cancelled", null));
+            }
+
+            @Override
+            public void onNext(T value) {
+                sink.success(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                sink.error(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                sink.success();
+            }
+        }));
+    }
+
+    /**
+     * Adapts a server-streaming async stub call, e.g. {@code obs -> stub.invoke(request, obs)}
+     */
+    public static <T> Flux<T> serverStreaming(Consumer<StreamObserver<T>> call) {
+        return Flux.create(sink -> {
+            AtomicReference<ClientCallStreamObserver<Object>> callRef = new AtomicReference<>();
+
+            call.accept(new ClientResponseObserver<Object, T>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+                    requestStream.disableAutoRequestWithInitial(0);
+                    callRef.set(requestStream);
+                }
+
+                @Override
+                public void onNext(T value) {
+                    sink.next(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    sink.error(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    sink.complete();
+                }
+            });
+
+            // The call is started once the stub returns, so demand can now be forwarded
+            ClientCallStreamObserver<Object> requestStream = callRef.get();
+            sink.onRequest(n -> requestStream.request((int) Math.min(n, Integer.MAX_VALUE)));
+            sink.onCancel(() -> requestStream.cancel("Subscriber cancelled", null));
+        });
+    }
+
+    /**
+     * Adapts a bidi-streaming async stub call, e.g. {@code obs -> stub.invokeBatch(obs)}.
+     * Requests are written as the transport becomes ready, so large batches are not
+     * buffered in the call all at once.
+     */
+    public static <Req, Resp> Flux<Resp> bidiStreaming(
+            Function<StreamObserver<Resp>, StreamObserver<Req>> call,
+            Iterable<Req> requests) {
+        return Flux.create(sink -> {
+            Iterator<Req> pending = requests.iterator();
+            AtomicReference<ClientCallStreamObserver<Req>> callRef = new AtomicReference<>();
+
+            call.apply(new ClientResponseObserver<Req, Resp>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<Req> requestStream) {
+                    requestStream.disableAutoRequestWithInitial(0);
+                    callRef.set(requestStream);
+                    requestStream.setOnReadyHandler(new Runnable() {
+                        private boolean halfClosed;
+
+                        // Invoked serially by gRPC whenever the outbound buffer drains
+                        @Override
+                        public void run() {
+                            while (requestStream.isReady() && pending.hasNext()) {
+                                requestStream.onNext(pending.next());
+                            }
+                            if (!pending.hasNext() && !halfClosed) {
+                                halfClosed = true;
+                                requestStream.onCompleted();
+                            }
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(Resp value) {
+                    sink.next(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    sink.error(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    sink.complete();
+                }
+            });
+
+            ClientCallStreamObserver<Req> requestStream = callRef.get();
+            sink.onRequest(n -> requestStream.request((int) Math.min(n, Integer.MAX_VALUE)));
+            sink.onCancel(() -> requestStream.cancel("Subscriber cancelled", null));
+        });
+    }
+}
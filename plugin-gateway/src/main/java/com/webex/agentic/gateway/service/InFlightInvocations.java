@@ -0,0 +1,101 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.common.model.CalculationRequest;
+import com.webex.agentic.common.model.CalculationResult;
+import com.webex.agentic.gateway.grpc.Deadlines;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical invocations, keyed by {@link InvocationKey}.
+ *
+ * Calls arriving while an identical one is in flight subscribe to it instead of allocating a
+ * worker of their own, and all receive its result or error. The shared invocation is cancelled
+ * only when its last subscriber cancels. Joined calls are counted as
+ * {@code gateway.invocations.coalesced}, tagged with the primitive.
+ *
+ * The shared invocation runs under the deadline of the call that started it, so a call only
+ * joins one whose deadline is at least as late as its own. Otherwise it starts its own
+ * invocation, which later identical calls join instead.
+ */
+@Service
+public class InFlightInvocations {
+
+    private final Map<InvocationKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public InFlightInvocations(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.coalescing.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Joins the identical invocation in flight, or starts {@code invocation} and lets later
+     * identical calls join it until it terminates. The deadline is read from the subscriber's context.
+     */
+    public Mono<CalculationResult> join(
+            PluginRegistry.PluginSpec spec,
+            CalculationRequest request,
+            Supplier<Mono<CalculationResult>> invocation) {
+
+        if (!enabled) {
+            return invocation.get();
+        }
+        return Mono.deferContextual(ctx -> {
+            InvocationKey key = InvocationKey.of(spec, request);
+            Deadline deadline = Deadlines.get(ctx);
+            boolean[] started = {false};
+            Flight flight = inFlight.compute(key, (k, current) -> {
+                if (current != null && current.outlasts(deadline)) {
+                    return current;
+                }
+                started[0] = true;
+                return share(k, deadline, invocation.get());
+            });
+            if (!started[0]) {
+                meterRegistry.counter("gateway.invocations.coalesced", "primitive", spec.getId()).increment();
+            }
+            return flight.result();
+        });
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private Flight share(InvocationKey key, Deadline deadline, Mono<CalculationResult> invocation) {
+        // Removed before the result is published, so no call can join an invocation that has ended
+        AtomicReference<Flight> self = new AtomicReference<>();
+        Mono<CalculationResult> shared = invocation
+            .doOnTerminate(() -> inFlight.remove(key, self.get()))
+            .doOnCancel(() -> inFlight.remove(key, self.get()))
+            .flux()
+            .publish()
+            .refCount()
+            .singleOrEmpty();
+        Flight flight = new Flight(shared, deadline);
+        self.set(flight);
+        return flight;
+    }
+
+    /**
+     * A shared invocation and the deadline it runs under, null if it has none
+     */
+    private record Flight(Mono<CalculationResult> result, Deadline deadline) {
+
+        boolean outlasts(Deadline other) {
+            return deadline == null || (other != null && !deadline.isBefore(other));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.common.concurrent.VirtualThreads;
+import com.webex.agentic.gateway.grpc.ChannelFactory;
+import com.webex.agentic.proto.ppp.ToolPluginGrpc;
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Hosts trusted Java plugins ({@link PluginRegistry.Isolation#INPROCESS}) inside the gateway.
+ *
+ * Each plugin's jars are read from {@code <plugin-dir>/<primitive id>/} into their own
+ * {@link PluginClassLoader}. The ToolPlugin service is found through
+ * {@code META-INF/services/io.grpc.BindableService} and served on an in-process gRPC server, so
+ * the gateway talks PPP to it exactly as it would to a worker container, minus the supervisor
+ * round trips and the network.
+ */
+@Service
+public class InProcessPluginHost {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessPluginHost.class);
+
+    private final Map<String, HostedPlugin> plugins = new ConcurrentHashMap<>();
+    private final PluginRegistry pluginRegistry;
+    private final Path pluginDir;
+    private final List<String> sharedPackages;
+    private final ExecutorService executor;
+
+    public InProcessPluginHost(
+            PluginRegistry pluginRegistry,
+            @Value("${gateway.inprocess.plugin-dir:plugins}") Path pluginDir,
+            @Value("${gateway.inprocess.shared-packages:com.webex.agentic.proto.,com.webex.agentic.common.,io.grpc.,com.google.protobuf.,com.fasterxml.jackson.,org.slf4j.}")
+            List<String> sharedPackages,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.pluginRegistry = pluginRegistry;
+        this.pluginDir = pluginDir;
+        this.sharedPackages = List.copyOf(sharedPackages);
+
+        this.executor = VirtualThreads.newPerTaskExecutor("inprocess-plugin", virtualThreads);
+    }
+
+    /**
+     * Loads every in-process plugin up front so the first call does not pay for it.
+     * A plugin that fails to load here is retried on its next call.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPlugins() {
+        for (PluginRegistry.PluginSpec spec : pluginRegistry.getPlugins()) {
+            if (spec.getIsolation() == PluginRegistry.Isolation.INPROCESS) {
+                try {
+                    address(spec);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to load in-process plugin {}: {}", spec.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Channel target serving the plugin, loading it on first use
+     */
+    public String address(PluginRegistry.PluginSpec spec) {
+        HostedPlugin plugin = plugins.computeIfAbsent(spec.getId() + "@" + spec.getVersion(), name -> load(spec, name));
+        return ChannelFactory.IN_PROCESS_PREFIX + plugin.serverName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        plugins.values().forEach(HostedPlugin::close);
+        plugins.clear();
+        executor.shutdown();
+    }
+
+    private HostedPlugin load(PluginRegistry.PluginSpec spec, String serverName) {
+        Path dir = pluginDir.resolve(spec.getId());
+        URL[] jars = listJars(dir);
+        if (jars.length == 0) {
+            throw new IllegalStateException("No plugin jars in " + dir.toAbsolutePath());
+        }
+
+        PluginClassLoader loader = new PluginClassLoader(spec.getId(), jars, getClass().getClassLoader(), sharedPackages);
+        try {
+            BindableService service = withContextClassLoader(loader, () -> findToolPlugin(loader, dir));
+
+            // Plugin code runs with its own classloader as context so its libraries resolve against its jars
+            Server server = InProcessServerBuilder.forName(serverName)
+                .executor(task -> executor.execute(() -> withContextClassLoader(loader, () -> {
+                    task.run();
+                    return null;
+                })))
+                .addService(service)
+                .build()
+                .start();
+
+            log.info("Loaded in-process plugin {} from {} ({})", serverName, dir, service.getClass().getName());
+            return new HostedPlugin(serverName, server, loader);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(loader);
+            throw new IllegalStateException("Failed to load in-process plugin " + serverName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static BindableService findToolPlugin(ClassLoader loader, Path dir) {
+        return ServiceLoader.load(BindableService.class, loader).stream()
+            .map(ServiceLoader.Provider::get)
+            .filter(service -> ToolPluginGrpc.SERVICE_NAME.equals(
+                service.bindService().getServiceDescriptor().getName()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No " + ToolPluginGrpc.SERVICE_NAME +
+                " service declared in META-INF/services/" + BindableService.class.getName() + " under " + dir));
+    }
+
+    private static URL[] listJars(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return new URL[0];
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                .sorted()
+                .map(InProcessPluginHost::toUrl)
+                .toArray(URL[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static URL toUrl(Path file) {
+        try {
+            return file.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static <T> T withContextClassLoader(ClassLoader loader, Supplier<T> action) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            return action.get();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static void closeQuietly(PluginClassLoader loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            log.debug("Failed to close classloader {}", loader.getName(), e);
+        }
+    }
+
+    private record HostedPlugin(String serverName, Server server, PluginClassLoader loader) {
+
+        void close() {
+            server.shutdown();
+            try {
+                if (!server.awaitTermination(5, TimeUnit.SECONDS)) {
+                    server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                server.shutdownNow();
+            }
+            closeQuietly(loader);
+        }
+    }
+}
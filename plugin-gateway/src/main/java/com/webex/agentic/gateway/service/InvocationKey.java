@@ -0,0 +1,20 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.common.model.CalculationRequest;
+
+/**
+ * Identity of one invocation's arguments: the primitive and version plus the raw operand bits.
+ *
+ * Comparing bits rather than doubles keeps NaN equal to itself and 0.0 distinct from -0.0,
+ * which matter for divide.
+ */
+public record InvocationKey(String primitive, String version, long operand1Bits, long operand2Bits) {
+
+    public static InvocationKey of(PluginRegistry.PluginSpec spec, CalculationRequest request) {
+        return new InvocationKey(
+            spec.getId(),
+            spec.getVersion(),
+            Double.doubleToLongBits(request.getOperand1()),
+            Double.doubleToLongBits(request.getOperand2()));
+    }
+}
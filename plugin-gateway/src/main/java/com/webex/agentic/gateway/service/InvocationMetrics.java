@@ -0,0 +1,87 @@
+package com.webex.agentic.gateway.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase latency timers for plugin invocations.
+ *
+ * All phases share the {@code gateway.invocation.phase} timer, tagged with phase, primitive,
+ * runtime (plugin language) and outcome, and publish p50/p95/p99 plus a percentile histogram.
+ */
+@Service
+public class InvocationMetrics {
+
+    public static final String ALLOCATE = "allocate";
+    public static final String READY_WAIT = "ready_wait";
+    public static final String CHANNEL_CONNECT = "channel_connect";
+    public static final String INIT = "init";
+    public static final String FIRST_MESSAGE = "invoke_first_message";
+    public static final String INVOKE = "invoke";
+    public static final String INVOKE_BATCH = "invoke_batch";
+    public static final String RELEASE = "release";
+    public static final String RENEW = "renew";
+
+    private static final String TIMER = "gateway.invocation.phase";
+
+    private final MeterRegistry meterRegistry;
+
+    public InvocationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times the Mono from subscription until it completes, errors or is cancelled
+     */
+    public <T> Mono<T> time(String phase, PluginRegistry.PluginSpec spec, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> record(phase, spec, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Times the Flux from subscription until its first element, and until it terminates
+     */
+    public <T> Flux<T> timeStream(String firstPhase, String phase, PluginRegistry.PluginSpec spec, Flux<T> flux) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            boolean[] first = {true};
+            return flux
+                .doOnNext(item -> {
+                    if (first[0]) {
+                        first[0] = false;
+                        record(firstPhase, spec, "success", System.nanoTime() - start);
+                    }
+                })
+                .doFinally(signal -> record(phase, spec, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    public void record(String phase, PluginRegistry.PluginSpec spec, String outcome, long nanos) {
+        Timer.builder(TIMER)
+            .description("Latency of one phase of a plugin invocation")
+            .tag("phase", phase)
+            .tag("primitive", spec.getId())
+            .tag("runtime", spec.getLanguage())
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+}
@@ -0,0 +1,342 @@
+package com.webex.agentic.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A primitive's input or output JSON Schema, compiled into a tree of checks when the registry
+ * is loaded so validating a document only walks the tree; patterns are compiled once here too.
+ *
+ * Supports the keywords primitive schemas need: type, enum, const, properties, required,
+ * additionalProperties, items, minItems, maxItems, minimum, maximum, exclusiveMinimum,
+ * exclusiveMaximum, minLength, maxLength and pattern. Other keywords are ignored, as JSON Schema
+ * does with keywords it does not know.
+ */
+public final class JsonSchema {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String source;
+    private final Check root;
+
+    private JsonSchema(String source, Check root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the schema is not JSON or a keyword has an invalid value
+     */
+    public static JsonSchema compile(String source) {
+        JsonNode schema;
+        try {
+            schema = MAPPER.readTree(source);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Schema is not valid JSON: " + e.getOriginalMessage(), e);
+        }
+        if (schema == null || schema.isMissingNode()) {
+            throw new IllegalArgumentException("Schema is empty");
+        }
+        return new JsonSchema(source, compile(schema, "#"));
+    }
+
+    /**
+     * The schema as written in the registry
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Every violation of the schema by the document, as "$.path: problem"; empty if it is valid
+     */
+    public List<String> validate(JsonNode document) {
+        List<String> violations = new ArrayList<>();
+        root.check(document, "$", violations);
+        return violations;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        void check(JsonNode node, String path, List<String> violations);
+    }
+
+    private static Check compile(JsonNode schema, String location) {
+        if (schema.isBoolean()) {
+            return schema.booleanValue()
+                ? (node, path, violations) -> { }
+                : (node, path, violations) -> violations.add(path + ": not allowed");
+        }
+        if (!schema.isObject()) {
+            throw new IllegalArgumentException(location + ": schema must be an object or a boolean");
+        }
+
+        List<Check> checks = new ArrayList<>();
+        if (schema.has("type")) {
+            checks.add(type(schema.get("type"), location));
+        }
+        if (schema.has("enum")) {
+            JsonNode values = schema.get("enum");
+            if (!values.isArray()) {
+                throw new IllegalArgumentException(location + "/enum: must be an array");
+            }
+            List<JsonNode> allowed = new ArrayList<>();
+            values.forEach(allowed::add);
+            checks.add((node, path, violations) -> {
+                if (allowed.stream().noneMatch(value -> sameValue(value, node))) {
+                    violations.add(path + ": must be one of " + values);
+                }
+            });
+        }
+        if (schema.has("const")) {
+            JsonNode value = schema.get("const");
+            checks.add((node, path, violations) -> {
+                if (!sameValue(value, node)) {
+                    violations.add(path + ": must be " + value);
+                }
+            });
+        }
+        addObjectChecks(schema, location, checks);
+        addArrayChecks(schema, location, checks);
+        addNumberChecks(schema, location, checks);
+        addStringChecks(schema, location, checks);
+
+        return (node, path, violations) -> {
+            for (Check check : checks) {
+                check.check(node, path, violations);
+            }
+        };
+    }
+
+    /**
+     * JSON Schema equality: numbers compare by value, so 1 and 1.0 are equal, at any depth
+     */
+    static boolean sameValue(JsonNode a, JsonNode b) {
+        if (a.isNumber() && b.isNumber()) {
+            return a.decimalValue().compareTo(b.decimalValue()) == 0;
+        }
+        if (a.isArray() && b.isArray()) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (int i = 0; i < a.size(); i++) {
+                if (!sameValue(a.get(i), b.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a.isObject() && b.isObject()) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> it = a.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode other = b.get(field.getKey());
+                if (other == null || !sameValue(field.getValue(), other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    private static Check type(JsonNode type, String location) {
+        List<String> types = new ArrayList<>();
+        if (type.isTextual()) {
+            types.add(type.textValue());
+        } else if (type.isArray()) {
+            type.forEach(t -> types.add(t.asText()));
+        }
+        for (String t : types) {
+            if (!Set.of("object", "array", "string", "number", "integer", "boolean", "null").contains(t)) {
+                throw new IllegalArgumentException(location + "/type: unknown type " + t);
+            }
+        }
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException(location + "/type: must be a type name or an array of them");
+        }
+        return (node, path, violations) -> {
+            for (String t : types) {
+                if (hasType(node, t)) {
+                    return;
+                }
+            }
+            violations.add(path + ": must be " + String.join(" or ", types));
+        };
+    }
+
+    private static boolean hasType(JsonNode node, String type) {
+        return switch (type) {
+            case "object" -> node.isObject();
+            case "array" -> node.isArray();
+            case "string" -> node.isTextual();
+            case "number" -> node.isNumber();
+            case "integer" -> node.isIntegralNumber()
+                || (node.isNumber() && node.doubleValue() == Math.rint(node.doubleValue()));
+            case "boolean" -> node.isBoolean();
+            default -> node.isNull();
+        };
+    }
+
+    private static void addObjectChecks(JsonNode schema, String location, List<Check> checks) {
+        Map<String, Check> properties = new LinkedHashMap<>();
+        JsonNode declared = schema.path("properties");
+        for (Iterator<Map.Entry<String, JsonNode>> it = declared.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> property = it.next();
+            properties.put(property.getKey(), compile(property.getValue(), location + "/properties/" + property.getKey()));
+        }
+
+        List<String> required = new ArrayList<>();
+        schema.path("required").forEach(name -> required.add(name.asText()));
+
+        JsonNode additional = schema.get("additionalProperties");
+        Check additionalCheck = additional == null ? null : compile(additional, location + "/additionalProperties");
+
+        if (properties.isEmpty() && required.isEmpty() && additionalCheck == null) {
+            return;
+        }
+        checks.add((node, path, violations) -> {
+            if (!node.isObject()) {
+                return;
+            }
+            for (String name : required) {
+                if (!node.has(name)) {
+                    violations.add(path + "." + name + ": is required");
+                }
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                Check property = properties.get(field.getKey());
+                if (property != null) {
+                    property.check(field.getValue(), path + "." + field.getKey(), violations);
+                } else if (additionalCheck != null) {
+                    additionalCheck.check(field.getValue(), path + "." + field.getKey(), violations);
+                }
+            }
+        });
+    }
+
+    private static void addArrayChecks(JsonNode schema, String location, List<Check> checks) {
+        JsonNode items = schema.get("items");
+        Check itemCheck = items == null ? null : compile(items, location + "/items");
+        Integer minItems = count(schema, "minItems", location);
+        Integer maxItems = count(schema, "maxItems", location);
+
+        if (itemCheck == null && minItems == null && maxItems == null) {
+            return;
+        }
+        checks.add((node, path, violations) -> {
+            if (!node.isArray()) {
+                return;
+            }
+            if (minItems != null && node.size() < minItems) {
+                violations.add(path + ": must have at least " + minItems + " items");
+            }
+            if (maxItems != null && node.size() > maxItems) {
+                violations.add(path + ": must have at most " + maxItems + " items");
+            }
+            if (itemCheck != null) {
+                for (int i = 0; i < node.size(); i++) {
+                    itemCheck.check(node.get(i), path + "[" + i + "]", violations);
+                }
+            }
+        });
+    }
+
+    private static void addNumberChecks(JsonNode schema, String location, List<Check> checks) {
+        Double minimum = number(schema, "minimum", location);
+        Double maximum = number(schema, "maximum", location);
+        Double exclusiveMinimum = number(schema, "exclusiveMinimum", location);
+        Double exclusiveMaximum = number(schema, "exclusiveMaximum", location);
+
+        if (minimum == null && maximum == null && exclusiveMinimum == null && exclusiveMaximum == null) {
+            return;
+        }
+        checks.add((node, path, violations) -> {
+            if (!node.isNumber()) {
+                return;
+            }
+            double value = node.doubleValue();
+            if (minimum != null && value < minimum) {
+                violations.add(path + ": must be at least " + minimum);
+            }
+            if (maximum != null && value > maximum) {
+                violations.add(path + ": must be at most " + maximum);
+            }
+            if (exclusiveMinimum != null && value <= exclusiveMinimum) {
+                violations.add(path + ": must be greater than " + exclusiveMinimum);
+            }
+            if (exclusiveMaximum != null && value >= exclusiveMaximum) {
+                violations.add(path + ": must be less than " + exclusiveMaximum);
+            }
+        });
+    }
+
+    private static void addStringChecks(JsonNode schema, String location, List<Check> checks) {
+        Integer minLength = count(schema, "minLength", location);
+        Integer maxLength = count(schema, "maxLength", location);
+        Pattern pattern = null;
+        if (schema.has("pattern")) {
+            try {
+                pattern = Pattern.compile(schema.get("pattern").asText());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(location + "/pattern: " + e.getDescription(), e);
+            }
+        }
+
+        if (minLength == null && maxLength == null && pattern == null) {
+            return;
+        }
+        Pattern compiled = pattern;
+        checks.add((node, path, violations) -> {
+            if (!node.isTextual()) {
+                return;
+            }
+            String value = node.textValue();
+            int length = value.codePointCount(0, value.length());
+            if (minLength != null && length < minLength) {
+                violations.add(path + ": must be at least " + minLength + " characters");
+            }
+            if (maxLength != null && length > maxLength) {
+                violations.add(path + ": must be at most " + maxLength + " characters");
+            }
+            if (compiled != null && !compiled.matcher(value).find()) {
+                violations.add(path + ": must match " + compiled.pattern());
+            }
+        });
+    }
+
+    private static Double number(JsonNode schema, String keyword, String location) {
+        JsonNode value = schema.get(keyword);
+        if (value == null) {
+            return null;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException(location + "/" + keyword + ": must be a number");
+        }
+        return value.doubleValue();
+    }
+
+    private static Integer count(JsonNode schema, String keyword, String location) {
+        JsonNode value = schema.get(keyword);
+        if (value == null) {
+            return null;
+        }
+        if (!value.canConvertToInt() || !value.isIntegralNumber() || value.intValue() < 0) {
+            throw new IllegalArgumentException(location + "/" + keyword + ": must be a non-negative integer");
+        }
+        return value.intValue();
+    }
+}
@@ -0,0 +1,46 @@
+package com.webex.agentic.gateway.service;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Classloader for one in-process plugin.
+ *
+ * Classes in the shared packages (the plugin protocol, gRPC, protobuf and the common model) come
+ * from the gateway so that services and messages are the same types on both sides of the
+ * in-process channel. Everything else resolves from the JDK or the plugin's own jars, so plugins
+ * cannot see gateway internals or each other.
+ */
+final class PluginClassLoader extends URLClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final ClassLoader host;
+    private final List<String> sharedPackages;
+
+    PluginClassLoader(String pluginId, URL[] jars, ClassLoader host, List<String> sharedPackages) {
+        super("plugin-" + pluginId, jars, ClassLoader.getPlatformClassLoader());
+        this.host = host;
+        this.sharedPackages = sharedPackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isShared(name)) {
+            return host.loadClass(name);
+        }
+        return super.loadClass(name, resolve);
+    }
+
+    private boolean isShared(String className) {
+        for (String prefix : sharedPackages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
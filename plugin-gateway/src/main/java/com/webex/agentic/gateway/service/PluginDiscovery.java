@@ -0,0 +1,65 @@
+package com.webex.agentic.gateway.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Polls each runtime supervisor's ListPlugins and feeds the result into the {@link PluginRegistry},
+ * so plugins a supervisor can launch become callable without being declared in the registry file
+ */
+@Component
+public class PluginDiscovery {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginDiscovery.class);
+
+    private final PluginRegistry pluginRegistry;
+    private final RuntimeSupervisorClient runtimeClient;
+    private final Duration interval;
+    private Disposable poller;
+
+    public PluginDiscovery(
+            PluginRegistry pluginRegistry,
+            RuntimeSupervisorClient runtimeClient,
+            @Value("${gateway.registry.discovery-interval:30s}") Duration interval) {
+        this.pluginRegistry = pluginRegistry;
+        this.runtimeClient = runtimeClient;
+        this.interval = interval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (interval.isZero()) {
+            return;
+        }
+        poller = Flux.interval(Duration.ZERO, interval)
+            .concatMap(tick -> Flux.fromIterable(pluginRegistry.getRuntimeAddresses()).flatMap(this::discover))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.dispose();
+        }
+    }
+
+    private Mono<Void> discover(String runtimeAddress) {
+        // A supervisor that is down or predates ListPlugins keeps what it reported last
+        return runtimeClient.listPlugins(runtimeAddress)
+            .timeout(interval)
+            .doOnNext(response -> pluginRegistry.updateDiscovered(runtimeAddress, response.getPluginsList()))
+            .doOnError(e -> log.debug("Plugin discovery on {} failed: {}", runtimeAddress, e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+}
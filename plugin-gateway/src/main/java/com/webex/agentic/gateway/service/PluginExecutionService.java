@@ -1,51 +1,395 @@
 package com.webex.agentic.gateway.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.webex.agentic.common.model.BatchItemResult;
+import com.webex.agentic.common.model.BatchOperation;
+import com.webex.agentic.common.model.CalculationEvent;
 import com.webex.agentic.common.model.CalculationRequest;
 import com.webex.agentic.common.model.CalculationResult;
+import com.webex.agentic.gateway.grpc.Deadlines;
+import com.webex.agentic.gateway.grpc.ReactiveCalls;
+import com.webex.agentic.proto.calculation.CalculationArgs;
+import com.webex.agentic.proto.calculation.CalculationOutput;
 import com.webex.agentic.proto.ppp.*;
 import com.webex.agentic.proto.supervisor.*;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.SynchronousSink;
 
-import java.util.Iterator;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * Reactive service that executes plugin operations using WebFlux
+ * Reactive service that executes plugin operations using WebFlux.
+ *
+ * Allocate, Init, Invoke and Release are chained as non-blocking stages on async
+ * gRPC stubs, so no thread is parked while a worker is spawned or executes.
+ * Every call runs under the request's deadline ({@link Deadlines}): the caller's, or the
+ * primitive's timeout, or gateway.deadlines.default. A call abandoned by its caller is
+ * cancelled on the supervisor and the plugin, and its worker released.
  */
 @Service
 public class PluginExecutionService {
-    
+
     private static final Logger log = LoggerFactory.getLogger(PluginExecutionService.class);
 
     private final PluginRegistry pluginRegistry;
     private final RuntimeSupervisorClient runtimeClient;
+    private final WorkerChannelPool channelPool;
+    private final InProcessPluginHost inProcessHost;
+    private final SessionLeases sessionLeases;
+    private final ResultCache resultCache;
+    private final InFlightInvocations inFlight;
+    private final SupervisorRouter router;
+    private final InvocationMetrics metrics;
+    private final int batchFallbackConcurrency;
+    private final boolean typedPayloads;
+    private final Duration defaultTimeout;
+    private static final Duration CANCEL_TIMEOUT = Duration.ofSeconds(2);
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    public PluginExecutionService(PluginRegistry pluginRegistry, RuntimeSupervisorClient runtimeClient) {
+
+    public PluginExecutionService(
+            PluginRegistry pluginRegistry,
+            RuntimeSupervisorClient runtimeClient,
+            WorkerChannelPool channelPool,
+            InProcessPluginHost inProcessHost,
+            SessionLeases sessionLeases,
+            ResultCache resultCache,
+            InFlightInvocations inFlight,
+            SupervisorRouter router,
+            InvocationMetrics metrics,
+            @Value("${gateway.batch.fallback-concurrency:16}") int batchFallbackConcurrency,
+            @Value("${gateway.payloads.typed:true}") boolean typedPayloads,
+            @Value("${gateway.deadlines.default:30s}") Duration defaultTimeout) {
         this.pluginRegistry = pluginRegistry;
         this.runtimeClient = runtimeClient;
+        this.channelPool = channelPool;
+        this.inProcessHost = inProcessHost;
+        this.sessionLeases = sessionLeases;
+        this.resultCache = resultCache;
+        this.inFlight = inFlight;
+        this.router = router;
+        this.metrics = metrics;
+        this.batchFallbackConcurrency = batchFallbackConcurrency;
+        this.typedPayloads = typedPayloads;
+        this.defaultTimeout = defaultTimeout;
     }
 
     public Mono<CalculationResult> executeCalculation(String operation, CalculationRequest request) {
-        return Mono.fromCallable(() -> executeCalculationBlocking(operation, request))
-                .subscribeOn(Schedulers.boundedElastic());
+        return executeCalculation(operation, request, null);
+    }
+
+    /**
+     * @param sessionId agent session the call belongs to; its calls share one leased worker per plugin.
+     *                  Null for a call of its own
+     */
+    public Mono<CalculationResult> executeCalculation(String operation, CalculationRequest request, String sessionId) {
+        return Mono.defer(() -> {
+            log.info("Executing {} operation: {} on {}", operation, request.getOperand1(), request.getOperand2());
+
+            // Get plugin spec
+            PluginRegistry.PluginSpec pluginSpec = pluginRegistry.getPlugin(operation);
+
+            CalculationResult cached = resultCache.get(pluginSpec, request);
+            if (cached != null) {
+                log.debug("Result cache hit for {}", operation);
+                return Mono.just(cached);
+            }
+
+            Supplier<Mono<CalculationResult>> invocation = () -> {
+                String requestId = UUID.randomUUID().toString();
+                return withInitializedWorker(pluginSpec, operation, requestId, sessionId,
+                        worker -> invoke(worker, operation, request, requestId))
+                    .singleOrEmpty()
+                    .doOnNext(result -> resultCache.put(pluginSpec, request, result));
+            };
+            // Identical calls already in flight share that invocation's worker and result; a
+            // session's calls run on its own leased worker and are not shared
+            return (sessionId == null ? inFlight.join(pluginSpec, request, invocation) : invocation.get())
+                .contextWrite(Deadlines.orDefault(timeout(pluginSpec)));
+        });
+    }
+
+    /**
+     * Like {@link #executeCalculation(String, CalculationRequest, String)}, but emits the plugin's
+     * Progress as it arrives and ends with one completed or failed event. Failures of the call
+     * itself (allocation, deadline, transport) also end the stream as a failed event, since the
+     * response has usually started by then. Messages are pulled from the Invoke stream only as
+     * fast as the subscriber takes events. Identical calls in flight are not coalesced.
+     */
+    public Flux<CalculationEvent> streamCalculation(String operation, CalculationRequest request, String sessionId) {
+        return Flux.defer(() -> {
+                PluginRegistry.PluginSpec pluginSpec = pluginRegistry.getPlugin(operation);
+
+                CalculationResult cached = resultCache.get(pluginSpec, request);
+                if (cached != null) {
+                    log.debug("Result cache hit for {}", operation);
+                    return Flux.just(CalculationEvent.completed(cached));
+                }
+
+                String requestId = UUID.randomUUID().toString();
+                return withInitializedWorker(pluginSpec, operation, requestId, sessionId, worker -> {
+                        AtomicBoolean ended = new AtomicBoolean();
+                        return invokeMessages(worker, requestId, () -> buildInvokeRequest(worker, operation, request, requestId))
+                            .handle(this::toEvent)
+                            .doOnNext(event -> ended.set(!CalculationEvent.PROGRESS.equals(event.getType())))
+                            .concatWith(Mono.fromSupplier(() -> ended.get()
+                                ? null
+                                : CalculationEvent.failed("NO_RESULT", "No result received from plugin")));
+                    })
+                    .doOnNext(event -> {
+                        if (event.getResult() != null) {
+                            resultCache.put(pluginSpec, request, event.getResult());
+                        }
+                    })
+                    .contextWrite(Deadlines.orDefault(timeout(pluginSpec)));
+            })
+            .onErrorResume(e -> {
+                log.error("Streamed {} operation failed", operation, e);
+                return Flux.just(CalculationEvent.failed(Status.fromThrowable(e).getCode().name(), String.valueOf(e.getMessage())));
+            });
+    }
+
+    /**
+     * Invokes any registered primitive with JSON arguments, which are passed to the plugin as sent.
+     * The arguments are checked against the primitive's input schema before a worker is allocated,
+     * and the plugin's output against its output schema; without a schema any JSON is accepted.
+     * Results are neither cached nor shared between identical calls.
+     *
+     * @param version version to invoke; null for the default
+     * @return the plugin's JSON output, as the plugin sent it
+     * @throws SchemaViolationException (as an error signal) if the arguments are rejected
+     */
+    public Mono<byte[]> executePrimitive(String primitiveId, String version, byte[] arguments, String sessionId) {
+        return Mono.defer(() -> {
+            PluginRegistry.PluginSpec pluginSpec = pluginRegistry.getPlugin(primitiveId, version);
+
+            List<String> violations = violations(pluginSpec.getInputSchema(), arguments);
+            if (!violations.isEmpty()) {
+                log.debug("Rejected arguments for {}: {}", primitiveId, violations);
+                return Mono.error(new SchemaViolationException(primitiveId, violations));
+            }
+
+            String requestId = UUID.randomUUID().toString();
+            return withInitializedWorker(pluginSpec, primitiveId, requestId, sessionId,
+                    worker -> invokeJson(worker, arguments, requestId))
+                .singleOrEmpty()
+                .contextWrite(Deadlines.orDefault(timeout(pluginSpec)));
+        });
+    }
+
+    /**
+     * Executes a batch of operations. Entries for the same primitive share one worker,
+     * one Init and one InvokeBatch stream; results come back in input order and a failed
+     * entry is reported in its own result instead of failing the whole batch.
+     */
+    public Mono<List<BatchItemResult>> executeBatch(List<BatchOperation> operations) {
+        return executeBatch(operations, null);
+    }
+
+    public Mono<List<BatchItemResult>> executeBatch(List<BatchOperation> operations, String sessionId) {
+        return streamBatch(operations, sessionId)
+            .collectSortedList(Comparator.comparingInt(BatchItemResult::getIndex));
+    }
+
+    /**
+     * Like {@link #executeBatch(List, String)}, but emits each entry's result as soon as it is known:
+     * cached entries first, then each primitive's entries as its group finishes
+     */
+    public Flux<BatchItemResult> streamBatch(List<BatchOperation> operations, String sessionId) {
+        return Flux.defer(() -> {
+            Map<String, List<Integer>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                groups.computeIfAbsent(operations.get(i).getOperation(), key -> new ArrayList<>()).add(i);
+            }
+            log.info("Executing batch of {} operations across {} primitives", operations.size(), groups.size());
+
+            return Flux.fromIterable(groups.entrySet())
+                .flatMap(group -> executeBatchGroup(group.getKey(), group.getValue(), operations, sessionId));
+        });
+    }
+
+    /**
+     * Answers the group's cached entries, then runs the rest on one worker. The primitive is looked
+     * up once here, so a registry reload that dropped it since the request was accepted fails only
+     * this group's entries.
+     */
+    private Flux<BatchItemResult> executeBatchGroup(
+            String operation,
+            List<Integer> indices,
+            List<BatchOperation> operations,
+            String sessionId) {
+        String batchId = UUID.randomUUID().toString();
+
+        return Flux.defer(() -> {
+                PluginRegistry.PluginSpec pluginSpec = pluginRegistry.getPlugin(operation);
+                List<BatchItemResult> cachedItems = new ArrayList<>();
+                List<Integer> uncached = new ArrayList<>();
+                for (int index : indices) {
+                    CalculationResult cached = resultCache.get(pluginSpec, operations.get(index).toCalculationRequest());
+                    if (cached != null) {
+                        cachedItems.add(BatchItemResult.success(index, operation, cached));
+                    } else {
+                        uncached.add(index);
+                    }
+                }
+                if (uncached.isEmpty()) {
+                    return Flux.fromIterable(cachedItems);
+                }
+                log.debug("Batch group {}: {} cached, {} to invoke", operation, cachedItems.size(), uncached.size());
+
+                return Flux.fromIterable(cachedItems).concatWith(
+                    withInitializedWorker(pluginSpec, operation, batchId, sessionId, worker ->
+                        Mono.fromCallable(() -> {
+                                List<InvokeRequest> requests = new ArrayList<>(uncached.size());
+                                for (int index : uncached) {
+                                    CalculationRequest request = operations.get(index).toCalculationRequest();
+                                    requests.add(buildInvokeRequest(worker, operation, request, batchId + ":" + index));
+                                }
+                                return requests;
+                            })
+                            .flatMap(requests -> metrics.time(InvocationMetrics.INVOKE_BATCH, pluginSpec,
+                                invokeBatch(worker.stub(), requests))))
+                        .contextWrite(Deadlines.orDefault(timeout(pluginSpec)))
+                        .map(results -> toBatchItems(operation, batchId, uncached, results))
+                        .doOnNext(items -> {
+                            for (BatchItemResult item : items) {
+                                if (item.getResult() != null) {
+                                    resultCache.put(pluginSpec, operations.get(item.getIndex()).toCalculationRequest(),
+                                        item.getResult());
+                                }
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.error("Batch group {} failed", operation, e);
+                            return Mono.just(failures(operation, uncached, e));
+                        })
+                        .flatMapIterable(items -> items));
+            })
+            .onErrorResume(e -> {
+                log.error("Batch group {} failed", operation, e);
+                return Flux.fromIterable(failures(operation, indices, e));
+            });
+    }
+
+    private static List<BatchItemResult> failures(String operation, List<Integer> indices, Throwable e) {
+        List<BatchItemResult> failed = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            failed.add(BatchItemResult.failure(index, operation, String.valueOf(e.getMessage())));
+        }
+        return failed;
+    }
+
+    /**
+     * Allocates a worker, waits for it to be ready, runs Init over a pooled channel and
+     * hands the initialized stub to {@code body}, passing on what it emits. The worker is
+     * released however it ends.
+     * In-process plugins skip the supervisor and are called on their in-process channel;
+     * calls of a session run on the worker leased to that session and leave it allocated.
+     */
+    private <T> Flux<T> withInitializedWorker(
+            PluginRegistry.PluginSpec pluginSpec,
+            String operation,
+            String requestId,
+            String sessionId,
+            Function<InitializedWorker, ? extends Publisher<T>> body) {
+
+        if (pluginSpec.getIsolation() == PluginRegistry.Isolation.INPROCESS) {
+            return Flux.defer(() -> executePlugin(pluginSpec, inProcessHost.address(pluginSpec), requestId, sessionId, body));
+        }
+
+        if (sessionId != null && sessionLeases.isEnabled()) {
+            return sessionLeases.acquire(sessionId, pluginSpec,
+                    ttl -> allocateLease(pluginSpec, operation, requestId, sessionId, ttl))
+                .flatMapMany(lease -> executePlugin(pluginSpec, lease.workerAddress(), requestId, sessionId, body)
+                    .doOnError(e -> {
+                        // Plugin-reported failures leave the worker usable; gRPC failures do not
+                        if (Status.fromThrowable(e).getCode() != Status.Code.UNKNOWN) {
+                            sessionLeases.invalidate(sessionId, pluginSpec, lease);
+                        }
+                    }));
+        }
+
+        // Allocate worker, execute, then release it whichever way execution ends; the
+        // response does not wait for the release
+        return allocate(pluginSpec, operation, requestId, sessionId, null)
+            .flatMapMany(allocation -> Flux.usingWhen(
+                Mono.just(allocation.response().getHandle().getWorkerId()),
+                id -> metrics.time(InvocationMetrics.READY_WAIT, pluginSpec,
+                        awaitReady(allocation.runtimeAddress(), allocation.response()))
+                    .flatMapMany(workerAddress -> executePlugin(pluginSpec, workerAddress, requestId, sessionId, body)),
+                id -> releaseInBackground(pluginSpec, allocation.runtimeAddress(), id, "execution_complete"),
+                (id, e) -> releaseInBackground(pluginSpec, allocation.runtimeAddress(), id, "execution_failed"),
+                id -> releaseInBackground(pluginSpec, allocation.runtimeAddress(), id, "client_closed")
+            ));
+    }
+
+    /**
+     * Allocates a worker held for a session until {@code ttl} passes without it being used
+     */
+    private Mono<SessionLeases.Lease> allocateLease(
+            PluginRegistry.PluginSpec pluginSpec,
+            String operation,
+            String requestId,
+            String sessionId,
+            Duration ttl) {
+
+        return allocate(pluginSpec, operation, requestId, sessionId, ttl)
+            .flatMap(allocation -> {
+                String runtimeAddress = allocation.runtimeAddress();
+                AllocateWorkerResponse allocResponse = allocation.response();
+                WorkerHandle handle = allocResponse.getHandle();
+                String handleId = handle.getWorkerId();
+                Duration grantedTtl = handle.hasTtl()
+                    ? Duration.ofSeconds(handle.getTtl().getSeconds(), handle.getTtl().getNanos())
+                    : ttl;
+                return metrics.time(InvocationMetrics.READY_WAIT, pluginSpec, awaitReady(runtimeAddress, allocResponse))
+                    .onErrorResume(e -> releaseInBackground(pluginSpec, runtimeAddress, handleId, "execution_failed")
+                        .then(Mono.error(e)))
+                    .map(workerAddress -> new SessionLeases.Lease(runtimeAddress, handleId, workerAddress, grantedTtl,
+                        reason -> releaseWorker(pluginSpec, runtimeAddress, handleId, reason)));
+            });
     }
 
-    private CalculationResult executeCalculationBlocking(String operation, CalculationRequest request) throws Exception {
-        log.info("Executing {} operation: {} on {}", operation, request.getOperand1(), request.getOperand2());
+    /**
+     * AllocateWorker for the plugin on the node chosen by the router. A node answering REJECTED
+     * is skipped and the next one tried; fails once every node serving the plugin was tried, or
+     * unless the allocation was ADMITTED or QUEUED.
+     *
+     * @param leaseTtl how long the handle is kept across invocations; null for this invocation only
+     */
+    private Mono<Allocation> allocate(
+            PluginRegistry.PluginSpec pluginSpec,
+            String operation,
+            String requestId,
+            String sessionId,
+            Duration leaseTtl) {
 
-        // Get plugin spec
-        PluginRegistry.PluginSpec pluginSpec = pluginRegistry.getPlugin(operation);
-        
         // Build plugin ref
         PluginRef pluginRef = PluginRef.newBuilder()
             .setId(pluginSpec.getId())
@@ -55,137 +399,418 @@ public class PluginExecutionService {
             .build();
 
         // Build context
-        String requestId = UUID.randomUUID().toString();
-        com.webex.agentic.proto.supervisor.Context supervisorContext = 
+        com.webex.agentic.proto.supervisor.Context supervisorContext =
             com.webex.agentic.proto.supervisor.Context.newBuilder()
                 .setTenantId("demo-tenant")
                 .setUserId("demo-user")
-                .setSessionId(UUID.randomUUID().toString())
+                .setSessionId(sessionId != null ? sessionId : UUID.randomUUID().toString())
                 .setCorrelationId(requestId)
                 .setRequestId(requestId)
                 .setPrimitive(operation)
                 .build();
 
-        // Allocate worker
-        AllocateWorkerResponse allocResponse = runtimeClient.allocateWorker(
-            pluginSpec.getRuntimeAddress(),
-            pluginRef,
-            supervisorContext
-        );
+        return allocateOn(pluginSpec, pluginRef, supervisorContext, leaseTtl, new HashSet<>());
+    }
 
-        if (allocResponse.getAdmission().getStatus() != Admission.Status.ADMITTED) {
-            throw new RuntimeException("Worker allocation failed: " + 
-                allocResponse.getAdmission().getReason());
-        }
+    private Mono<Allocation> allocateOn(
+            PluginRegistry.PluginSpec pluginSpec,
+            PluginRef pluginRef,
+            com.webex.agentic.proto.supervisor.Context supervisorContext,
+            Duration leaseTtl,
+            Set<String> tried) {
 
-        String workerId = allocResponse.getHandle().getWorkerId();
-        log.info("Worker allocated: {}", workerId);
+        return Mono.defer(() -> {
+            String runtimeAddress = router.select(pluginSpec.getRuntimeAddresses(), tried);
+            tried.add(runtimeAddress);
+            return metrics.time(InvocationMetrics.ALLOCATE, pluginSpec, router.track(runtimeAddress,
+                    runtimeClient.allocateWorker(runtimeAddress, pluginRef, supervisorContext, leaseTtl)))
+                .flatMap(allocResponse -> {
+                    Admission.Status status = allocResponse.getAdmission().getStatus();
+                    if (status == Admission.Status.REJECTED) {
+                        router.rejected(runtimeAddress);
+                        if (tried.size() < pluginSpec.getRuntimeAddresses().size()) {
+                            log.info("Allocation rejected by {} ({}), trying another supervisor",
+                                runtimeAddress, allocResponse.getAdmission().getReason());
+                            return allocateOn(pluginSpec, pluginRef, supervisorContext, leaseTtl, tried);
+                        }
+                    }
+                    if (status != Admission.Status.ADMITTED && status != Admission.Status.QUEUED) {
+                        return Mono.error(new RuntimeException("Worker allocation failed: " +
+                            allocResponse.getAdmission().getReason()));
+                    }
+                    log.info("Worker allocated: {} on {} ({})", allocResponse.getHandle().getWorkerId(), runtimeAddress, status);
+                    return Mono.just(new Allocation(runtimeAddress, allocResponse));
+                });
+        });
+    }
 
-        try {
-            // Wait for worker DNS to propagate and gRPC server to be ready
-            Thread.sleep(1000);
-            
-            // Execute plugin via PPP
-            CalculationResult result = executePlugin(
-                pluginSpec,
-                workerId,
-                operation,
-                request,
-                requestId
-            );
-            
-            return result;
-        } finally {
-            // Release worker
-            runtimeClient.releaseWorker(
-                pluginSpec.getRuntimeAddress(),
-                workerId,
-                "execution_complete"
-            );
+    /**
+     * An AllocateWorker response and the supervisor node that granted it
+     */
+    private record Allocation(String runtimeAddress, AllocateWorkerResponse response) {
+    }
+
+    /**
+     * ADMITTED workers are already serving; QUEUED handles are followed via WatchWorker until
+     * a worker is READY. Resolves to the address of the worker to invoke. The wait is bounded
+     * by the caller's deadline, which the watch carries and fails with DEADLINE_EXCEEDED.
+     */
+    private Mono<String> awaitReady(String runtimeAddress, AllocateWorkerResponse allocResponse) {
+        String handleId = allocResponse.getHandle().getWorkerId();
+        if (allocResponse.getAdmission().getStatus() == Admission.Status.ADMITTED) {
+            return Mono.just(getWorkerAddress(allocResponse.getHandle().getAddress(), handleId));
         }
+
+        return runtimeClient.watchWorker(runtimeAddress, handleId)
+            .doOnNext(event -> {
+                if (event.getState() == WorkerEvent.State.QUEUED) {
+                    log.info("Allocation {} queued: {}", handleId, event.getQueue().getFieldsMap());
+                }
+            })
+            .filter(event -> event.getState() != WorkerEvent.State.STARTING
+                && event.getState() != WorkerEvent.State.QUEUED)
+            .next()
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Worker " + handleId + " watch ended before ready")))
+            .flatMap(event -> {
+                if (event.getState() != WorkerEvent.State.READY) {
+                    return Mono.error(new RuntimeException("Worker " + handleId + " not ready: " +
+                        event.getState() + " " + event.getReason()));
+                }
+                log.info("Worker {} ready", event.getWorkerId());
+                return Mono.just(getWorkerAddress(event.getAddress(), event.getWorkerId()));
+            });
     }
 
-    private CalculationResult executePlugin(
+    private <T> Flux<T> executePlugin(
             PluginRegistry.PluginSpec pluginSpec,
-            String workerId,
-            String operation,
-            CalculationRequest request,
-            String requestId) throws Exception {
-
-        // Connect to worker via gRPC
-        // For POC, we use the runtime address with worker-specific port offset
-        String workerAddress = getWorkerAddress(pluginSpec.getRuntimeAddress(), workerId);
-        
-        ManagedChannel channel = ManagedChannelBuilder.forTarget(workerAddress)
-            .usePlaintext()
-            .build();
+            String workerAddress,
+            String requestId,
+            String sessionId,
+            Function<InitializedWorker, ? extends Publisher<T>> body) {
 
-        try {
-            ToolPluginGrpc.ToolPluginBlockingStub stub = ToolPluginGrpc.newBlockingStub(channel);
-
-            // Initialize
-            com.webex.agentic.proto.ppp.Context pppContext = 
-                com.webex.agentic.proto.ppp.Context.newBuilder()
-                    .setTenantId("demo-tenant")
-                    .setUserId("demo-user")
-                    .setSessionId(UUID.randomUUID().toString())
-                    .setCorrelationId(requestId)
-                    .build();
+        // Connect to worker via gRPC; every plugin call carries the request's deadline
+        return Flux.deferContextual(ctx -> Flux.using(
+            () -> channelPool.acquire(workerAddress),
+            lease -> {
+                ToolPluginGrpc.ToolPluginStub stub = Deadlines.bind(ToolPluginGrpc.newStub(lease.channel()), ctx);
 
-            InitRequest initReq = InitRequest.newBuilder()
-                .setCtx(pppContext)
-                .build();
+                // Initialize
+                com.webex.agentic.proto.ppp.Context pppContext =
+                    com.webex.agentic.proto.ppp.Context.newBuilder()
+                        .setTenantId("demo-tenant")
+                        .setUserId("demo-user")
+                        .setSessionId(sessionId != null ? sessionId : UUID.randomUUID().toString())
+                        .setCorrelationId(requestId)
+                        .build();
+
+                InitRequest initReq = InitRequest.newBuilder()
+                    .setCtx(pppContext)
+                    .build();
 
-            InitResponse initResp = stub.init(initReq);
-            if (!initResp.getOk()) {
-                throw new RuntimeException("Plugin init failed: " + initResp.getMessage());
+                // Init is a once-per-worker handshake; its answer is kept with the worker's channel
+                return metrics.time(InvocationMetrics.CHANNEL_CONNECT, pluginSpec, lease.connect())
+                    .then(lease.handshake(pppContext.getTenantId(), () -> metrics.time(InvocationMetrics.INIT, pluginSpec,
+                        ReactiveCalls.<InitResponse>unary(obs -> stub.init(initReq, obs)))))
+                    .<T>flatMapMany(initResp -> {
+                        if (!initResp.getOk()) {
+                            return Flux.error(new RuntimeException("Plugin init failed: " + initResp.getMessage()));
+                        }
+                        return body.apply(new InitializedWorker(pluginSpec, stub, pppContext,
+                            typedPayloads && acceptsTyped(initResp, CalculationArgs.getDescriptor()),
+                            Boolean.parseBoolean(initResp.getCapsOrDefault("cancel", "false"))));
+                    });
+            },
+            WorkerChannelPool.Lease::close
+        )).doOnError(e -> {
+            // A worker that stopped answering should not keep a cached channel
+            if (Status.fromThrowable(e).getCode() == Status.Code.UNAVAILABLE) {
+                channelPool.evict(workerAddress);
             }
+        });
+    }
 
-            // Invoke
-            String jsonArgs = objectMapper.writeValueAsString(request);
-            InvokeRequest invokeReq = InvokeRequest.newBuilder()
-                .setCtx(pppContext)
-                .setPrimitive(operation)
-                .setVersion("1.0.0")
-                .setArguments(Json.newBuilder()
-                    .setValue(ByteString.copyFromUtf8(jsonArgs))
-                    .build())
-                .setRequestId(requestId)
-                .build();
+    private Mono<CalculationResult> invoke(
+            InitializedWorker worker,
+            String operation,
+            CalculationRequest request,
+            String requestId) {
 
-            Iterator<PluginMessage> responseStream = stub.invoke(invokeReq);
-            
-            CalculationResult result = null;
-            while (responseStream.hasNext()) {
-                PluginMessage message = responseStream.next();
-                
+        return invokeMessages(worker, requestId, () -> buildInvokeRequest(worker, operation, request, requestId))
+            .<CalculationResult>handle((message, sink) -> {
                 if (message.hasProgress()) {
                     log.info("Progress: {}%", message.getProgress().getPercent());
                 } else if (message.hasCompleted()) {
-                    String jsonOutput = message.getCompleted().getOutput().getValue().toStringUtf8();
-                    result = objectMapper.readValue(jsonOutput, CalculationResult.class);
-                    log.info("Plugin execution completed: {}", result);
+                    try {
+                        CalculationResult result = parseResult(message.getCompleted());
+                        log.info("Plugin execution completed: {}", result);
+                        sink.next(result);
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                } else if (message.hasFailed()) {
+                    sink.error(new RuntimeException("Plugin execution failed: " +
+                        message.getFailed().getMessage()));
+                }
+            })
+            .singleOrEmpty()
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("No result received from plugin")));
+    }
+
+    /**
+     * Invokes the primitive with raw JSON arguments and resolves to its JSON output
+     */
+    private Mono<byte[]> invokeJson(InitializedWorker worker, byte[] arguments, String requestId) {
+        PluginRegistry.PluginSpec pluginSpec = worker.spec();
+        return invokeMessages(worker, requestId, () -> InvokeRequest.newBuilder()
+                .setCtx(worker.context())
+                .setPrimitive(pluginSpec.getId())
+                .setVersion(pluginSpec.getVersion())
+                .setRequestId(requestId)
+                .setArguments(Json.newBuilder().setValue(ByteString.copyFrom(arguments)))
+                .build())
+            .<byte[]>handle((message, sink) -> {
+                if (message.hasCompleted()) {
+                    if (!message.getCompleted().hasOutput()) {
+                        sink.error(new RuntimeException("Plugin " + pluginSpec.getId() + " did not answer with JSON output"));
+                        return;
+                    }
+                    byte[] output = message.getCompleted().getOutput().getValue().toByteArray();
+                    List<String> violations = violations(pluginSpec.getOutputSchema(), output);
+                    if (violations.isEmpty()) {
+                        sink.next(output);
+                    } else {
+                        sink.error(new RuntimeException("Invalid plugin output from " + pluginSpec.getId() + ": "
+                            + String.join("; ", violations)));
+                    }
                 } else if (message.hasFailed()) {
-                    throw new RuntimeException("Plugin execution failed: " + 
-                        message.getFailed().getMessage());
+                    sink.error(new RuntimeException("Plugin execution failed: " + message.getFailed().getMessage()));
+                }
+            })
+            .singleOrEmpty()
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("No result received from plugin")));
+    }
+
+    /**
+     * Violations of the schema by a JSON document; a document that is not JSON is one violation.
+     * Without a schema only that it is JSON is checked.
+     */
+    private List<String> violations(JsonSchema schema, byte[] json) {
+        JsonNode document;
+        try {
+            document = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return List.of("$: not valid JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return List.of("$: not valid JSON: " + e.getMessage());
+        }
+        if (document == null || document.isMissingNode()) {
+            return List.of("$: is required");
+        }
+        return schema == null ? List.of() : schema.validate(document);
+    }
+
+    /**
+     * The plugin's Invoke stream for one request. Messages are requested from the plugin as the
+     * subscriber demands them; abandoning the stream, or its deadline passing, cancels the request
+     * on the plugin.
+     */
+    private Flux<PluginMessage> invokeMessages(
+            InitializedWorker worker,
+            String requestId,
+            Callable<InvokeRequest> invokeRequest) {
+
+        return Mono.fromCallable(invokeRequest)
+            .flatMapMany(invokeReq -> metrics.timeStream(InvocationMetrics.FIRST_MESSAGE, InvocationMetrics.INVOKE, worker.spec(),
+                ReactiveCalls.<PluginMessage>serverStreaming(obs -> worker.stub().invoke(invokeReq, obs))))
+            .doOnCancel(() -> cancelOnPlugin(worker, requestId, "client_cancelled"))
+            .doOnError(e -> {
+                if (Status.fromThrowable(e).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                    cancelOnPlugin(worker, requestId, "deadline_exceeded");
                 }
+            });
+    }
+
+    /**
+     * Maps a PPP message onto the event streamed to HTTP clients
+     */
+    private void toEvent(PluginMessage message, SynchronousSink<CalculationEvent> sink) {
+        if (message.hasProgress()) {
+            Progress progress = message.getProgress();
+            sink.next(CalculationEvent.progress(progress.getPercent(), progress.getMessage(), progress.getGaugesMap()));
+        } else if (message.hasCompleted()) {
+            try {
+                sink.next(CalculationEvent.completed(parseResult(message.getCompleted())));
+            } catch (IOException e) {
+                sink.next(CalculationEvent.failed("INVALID_OUTPUT", "Invalid plugin output: " + e.getMessage()));
             }
+        } else if (message.hasFailed()) {
+            Failed failed = message.getFailed();
+            sink.next(CalculationEvent.failed(failed.getCode().isEmpty() ? "PLUGIN_FAILED" : failed.getCode(),
+                failed.getMessage()));
+        }
+    }
 
-            if (result == null) {
-                throw new RuntimeException("No result received from plugin");
+    /**
+     * Tells a plugin advertising caps["cancel"] to stop work on an abandoned request. The Invoke
+     * call itself is cancelled regardless; this reaches plugins doing the work off the call's thread.
+     */
+    private void cancelOnPlugin(InitializedWorker worker, String requestId, String reason) {
+        if (!worker.cancellable()) {
+            return;
+        }
+        CancelRequest request = CancelRequest.newBuilder()
+            .setRequestId(requestId)
+            .setReason(reason)
+            .build();
+        // The abandoned request's deadline may have passed; Cancel gets one of its own
+        ToolPluginGrpc.ToolPluginStub stub = worker.stub().withDeadlineAfter(CANCEL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        ReactiveCalls.<CancelResponse>unary(obs -> stub.cancel(request, obs))
+            .subscribe(
+                response -> log.info("Cancelled {} on {} ({}, running: {})",
+                    requestId, worker.spec().getId(), reason, response.getCancelled()),
+                e -> log.debug("Cancel of {} on {} failed: {}", requestId, worker.spec().getId(), e.getMessage()));
+    }
+
+    private Duration timeout(PluginRegistry.PluginSpec pluginSpec) {
+        return pluginSpec.getTimeout() != null ? pluginSpec.getTimeout() : defaultTimeout;
+    }
+
+    /**
+     * Streams all requests over one InvokeBatch call and collects the terminal message per
+     * request_id. Plugins without InvokeBatch get concurrent Invoke calls on the same channel.
+     */
+    private Mono<Map<String, PluginMessage>> invokeBatch(ToolPluginGrpc.ToolPluginStub stub, List<InvokeRequest> requests) {
+        return ReactiveCalls.<InvokeRequest, PluginMessage>bidiStreaming(stub::invokeBatch, requests)
+            .onErrorResume(e -> Status.fromThrowable(e).getCode() == Status.Code.UNIMPLEMENTED, e -> {
+                log.info("Plugin does not implement InvokeBatch, falling back to per-request Invoke");
+                return Flux.fromIterable(requests)
+                    .flatMap(req -> ReactiveCalls.<PluginMessage>serverStreaming(obs -> stub.invoke(req, obs)),
+                        batchFallbackConcurrency);
+            })
+            .filter(message -> message.hasCompleted() || message.hasFailed())
+            .collectMap(message -> message.hasCompleted()
+                ? message.getCompleted().getRequestId()
+                : message.getFailed().getRequestId());
+    }
+
+    private List<BatchItemResult> toBatchItems(
+            String operation,
+            String batchId,
+            List<Integer> indices,
+            Map<String, PluginMessage> results) {
+
+        List<BatchItemResult> items = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            PluginMessage message = results.get(batchId + ":" + index);
+            if (message == null) {
+                items.add(BatchItemResult.failure(index, operation, "No result received from plugin"));
+            } else if (message.hasFailed()) {
+                items.add(BatchItemResult.failure(index, operation, message.getFailed().getMessage()));
+            } else {
+                try {
+                    items.add(BatchItemResult.success(index, operation, parseResult(message.getCompleted())));
+                } catch (IOException e) {
+                    items.add(BatchItemResult.failure(index, operation, "Invalid plugin output: " + e.getMessage()));
+                }
             }
+        }
+        return items;
+    }
+
+    /**
+     * Builds the Invoke request, as typed CalculationArgs if the worker accepts them, otherwise as JSON
+     */
+    private InvokeRequest buildInvokeRequest(
+            InitializedWorker worker,
+            String operation,
+            CalculationRequest request,
+            String requestId) throws IOException {
 
-            return result;
+        InvokeRequest.Builder invokeReq = InvokeRequest.newBuilder()
+            .setCtx(worker.context())
+            .setPrimitive(operation)
+            .setVersion(worker.spec().getVersion())
+            .setRequestId(requestId);
 
-        } finally {
-            channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        if (worker.typedPayloads()) {
+            invokeReq.setTypedArguments(Any.pack(CalculationArgs.newBuilder()
+                .setOperand1(request.getOperand1())
+                .setOperand2(request.getOperand2())
+                .build()));
+        } else {
+            String jsonArgs = objectMapper.writeValueAsString(request);
+            invokeReq.setArguments(Json.newBuilder()
+                .setValue(ByteString.copyFromUtf8(jsonArgs))
+                .build());
         }
+        return invokeReq.build();
     }
 
-    private String getWorkerAddress(String runtimeAddress, String workerId) {
-        // Worker containers communicate via container name on same network
-        // Worker exposes gRPC on port 8080 internally
-        return workerId + ":8080";
+    private CalculationResult parseResult(Completed completed) throws IOException {
+        if (completed.hasTypedOutput()) {
+            CalculationOutput output = completed.getTypedOutput().unpack(CalculationOutput.class);
+            return new CalculationResult(output.getResult(), output.getOperation(),
+                output.getOperand1(), output.getOperand2());
+        }
+        String jsonOutput = completed.getOutput().getValue().toStringUtf8();
+        return objectMapper.readValue(jsonOutput, CalculationResult.class);
+    }
+
+    /**
+     * True if the plugin listed the message type in its Init caps["typed_payloads"]
+     */
+    private static boolean acceptsTyped(InitResponse initResp, Descriptors.Descriptor type) {
+        String advertised = initResp.getCapsOrDefault("typed_payloads", "");
+        for (String name : advertised.split(",")) {
+            if (name.trim().equals(type.getFullName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends ReleaseWorker without waiting for it, so no response waits on the supervisor pooling
+     * or tearing down the worker. A release that is lost is reclaimed when the handle's ttl runs out.
+     */
+    private Mono<Void> releaseInBackground(
+            PluginRegistry.PluginSpec pluginSpec, String runtimeAddress, String workerId, String reason) {
+        return Mono.fromRunnable(() -> releaseWorker(pluginSpec, runtimeAddress, workerId, reason).subscribe());
+    }
+
+    private Mono<Void> releaseWorker(PluginRegistry.PluginSpec pluginSpec, String runtimeAddress, String workerId, String reason) {
+        return metrics.time(InvocationMetrics.RELEASE, pluginSpec,
+                runtimeClient.releaseWorker(runtimeAddress, workerId, reason))
+            .doOnNext(response -> {
+                // Pooled workers keep their channel; terminated ones take it with them.
+                // A queued handle is released by its own id but names the worker it was bound to.
+                if (response.getTerminated()) {
+                    String boundWorkerId = response.getWorkerId().isEmpty() ? workerId : response.getWorkerId();
+                    channelPool.evict(getWorkerAddress(response.getWorkerAddress(), boundWorkerId));
+                }
+            })
+            .doOnError(e -> log.warn("Failed to release worker {}: {}", workerId, e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
     }
-}
 
+    /**
+     * The address the supervisor reported for the worker. Supervisors that leave it empty run
+     * worker containers reached by name on the shared network, serving gRPC on port 8080.
+     */
+    private static String getWorkerAddress(String reportedAddress, String workerId) {
+        return reportedAddress.isEmpty() ? workerId + ":8080" : reportedAddress;
+    }
+
+    /**
+     * A worker stub after a successful Init, with the payload encoding it negotiated and
+     * whether it accepts Cancel
+     */
+    private record InitializedWorker(
+            PluginRegistry.PluginSpec spec,
+            ToolPluginGrpc.ToolPluginStub stub,
+            com.webex.agentic.proto.ppp.Context context,
+            boolean typedPayloads,
+            boolean cancellable) {
+    }
+}
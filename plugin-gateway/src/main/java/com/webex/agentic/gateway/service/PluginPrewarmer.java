@@ -0,0 +1,67 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.proto.supervisor.PluginRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Asks each runtime supervisor to prewarm worker pools for registered plugins on startup
+ */
+@Component
+public class PluginPrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginPrewarmer.class);
+
+    private final PluginRegistry pluginRegistry;
+    private final RuntimeSupervisorClient runtimeClient;
+    private final boolean prewarm;
+
+    public PluginPrewarmer(
+            PluginRegistry pluginRegistry,
+            RuntimeSupervisorClient runtimeClient,
+            @Value("${gateway.workers.prewarm:true}") boolean prewarm) {
+        this.pluginRegistry = pluginRegistry;
+        this.runtimeClient = runtimeClient;
+        this.prewarm = prewarm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmPlugins() {
+        if (!prewarm) {
+            return;
+        }
+
+        for (PluginRegistry.PluginSpec spec : pluginRegistry.getPlugins()) {
+            if (spec.getIsolation() == PluginRegistry.Isolation.INPROCESS) {
+                // Hosted by the gateway itself, see InProcessPluginHost
+                continue;
+            }
+
+            PluginRef pluginRef = PluginRef.newBuilder()
+                .setId(spec.getId())
+                .setVersion(spec.getVersion())
+                .setLanguage(spec.getLanguage())
+                .setEntrypoint(spec.getEntrypoint())
+                .build();
+
+            // Every node the plugin may be routed to gets a warm pool. Supervisors may still be starting, so retry with backoff
+            for (String runtimeAddress : spec.getRuntimeAddresses()) {
+                Mono.defer(() -> runtimeClient.ensurePlugin(runtimeAddress, pluginRef, true))
+                    .retryWhen(Retry.backoff(5, Duration.ofSeconds(1)))
+                    .subscribe(
+                        response -> log.info("Plugin {} prewarmed on {} (warnings: {})", spec.getId(), runtimeAddress,
+                            response.getWarningsList()),
+                        e -> log.warn("Failed to prewarm plugin {} on {}: {}", spec.getId(), runtimeAddress, e.getMessage())
+                    );
+            }
+        }
+    }
+}
@@ -1,80 +1,401 @@
 package com.webex.agentic.gateway.service;
 
+import com.webex.agentic.proto.supervisor.PluginRef;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Registry that maps primitives to their runtime configurations
+ * Registry that maps primitives to their runtime configurations.
+ *
+ * Plugins are declared in a versioned registry file ({@code gateway.registry.file}), one entry
+ * per primitive version, and supplemented by plugins the runtime supervisors report through
+ * ListPlugins (see {@link PluginDiscovery}). Each version routes to its own runtime supervisor
+ * nodes, chosen per allocation by {@link SupervisorRouter}.
+ *
+ * Lookups read an immutable snapshot and never lock. Reloading the file or a discovery update
+ * builds a new snapshot and swaps it in atomically, so plugins are added or rolled to a new
+ * default version without a restart. A file on disk is polled for changes every reload-interval.
+ *
+ * Input and output schemas are compiled when the file is loaded. Compiled schemas are kept across
+ * reloads and reused for every entry whose schema text is unchanged. Components holding state
+ * derived from specs register a reload listener to be told of every snapshot swapped in.
  */
 @Service
 public class PluginRegistry {
     
     private static final Logger log = LoggerFactory.getLogger(PluginRegistry.class);
 
-    private final Map<String, PluginSpec> registry = new HashMap<>();
-
-    public PluginRegistry() {
-        // Register plugins
-        registry.put("add_numbers", new PluginSpec(
-            "add_numbers",
-            "1.0.0",
-            "java",
-            "java-runtime-supervisor:9091",
-            "AddPlugin"
-        ));
-
-        registry.put("multiply_numbers", new PluginSpec(
-            "multiply_numbers",
-            "1.0.0",
-            "java",
-            "java-runtime-supervisor:9091",
-            "MultiplyPlugin"
-        ));
-
-        registry.put("subtract_numbers", new PluginSpec(
-            "subtract_numbers",
-            "1.0.0",
-            "python",
-            "python-runtime-supervisor:9092",
-            "subtract_plugin.py"
-        ));
-
-        registry.put("divide_numbers", new PluginSpec(
-            "divide_numbers",
-            "1.0.0",
-            "python",
-            "python-runtime-supervisor:9092",
-            "divide_plugin.py"
-        ));
-
-        log.info("Registered {} plugins", registry.size());
+    private final Set<String> inProcessPlugins;
+    private final Map<String, List<String>> runtimes;
+    private final Resource registryFile;
+    private final Map<String, List<PluginRef>> discovered = new ConcurrentHashMap<>();
+    private final List<Consumer<Collection<PluginSpec>>> reloadListeners = new CopyOnWriteArrayList<>();
+    private final Disposable reloader;
+
+    private volatile Snapshot snapshot;
+    private PluginRegistryFile declared;
+    private Map<String, JsonSchema> schemas = Map.of();
+    private long loadedModified;
+
+    /**
+     * @param inProcessPlugins trusted Java primitives to host inside the gateway instead of in containers
+     * @param registryFile location of the registry file, e.g. classpath:plugins.yml or file:/etc/gateway/plugins.yml
+     * @param reloadInterval how often a registry file on disk is checked for changes; zero to never reload
+     * @param javaRuntime addresses of the Java runtime supervisor nodes, comma-separated
+     * @param pythonRuntime addresses of the Python runtime supervisor nodes, comma-separated
+     */
+    public PluginRegistry(
+            @Value("${gateway.inprocess.plugins:}") Set<String> inProcessPlugins,
+            @Value("${gateway.registry.file:classpath:plugins.yml}") String registryFile,
+            @Value("${gateway.registry.reload-interval:5s}") Duration reloadInterval,
+            @Value("${gateway.runtimes.java:java-runtime-supervisor:9091}") String javaRuntime,
+            @Value("${gateway.runtimes.python:python-runtime-supervisor:9092}") String pythonRuntime) {
+        this.inProcessPlugins = Set.copyOf(inProcessPlugins);
+        this.runtimes = Map.of("java", addresses(javaRuntime), "python", addresses(pythonRuntime));
+        this.registryFile = new DefaultResourceLoader().getResource(registryFile);
+
+        // A registry that cannot be read at startup is fatal; later bad edits keep the last good one
+        reloadFile();
+        for (String id : inProcessPlugins) {
+            PluginSpec spec = snapshot.find(id);
+            if (spec == null || spec.getIsolation() != Isolation.INPROCESS) {
+                log.warn("Ignoring in-process setting for {}: only registered Java plugins can run in-process", id);
+            }
+        }
+
+        this.reloader = reloadInterval.isZero() || !this.registryFile.isFile()
+            ? null
+            : Schedulers.single().schedulePeriodically(this::reloadIfModified,
+                reloadInterval.toMillis(), reloadInterval.toMillis(), TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * The default version of the primitive
+     */
     public PluginSpec getPlugin(String primitiveId) {
-        PluginSpec spec = registry.get(primitiveId);
+        PluginSpec spec = snapshot.find(primitiveId);
         if (spec == null) {
             throw new IllegalArgumentException("Unknown primitive: " + primitiveId);
         }
         return spec;
     }
 
+    /**
+     * A specific version of the primitive, or its default version if {@code version} is null
+     */
+    public PluginSpec getPlugin(String primitiveId, String version) {
+        if (version == null) {
+            return getPlugin(primitiveId);
+        }
+        Primitive primitive = snapshot.primitives().get(primitiveId);
+        PluginSpec spec = primitive == null ? null : primitive.versions().get(version);
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown primitive: " + primitiveId + "@" + version);
+        }
+        return spec;
+    }
+
+    public boolean contains(String primitiveId) {
+        return snapshot.primitives().containsKey(primitiveId);
+    }
+
+    /**
+     * The default version of every primitive
+     */
+    public Collection<PluginSpec> getPlugins() {
+        return snapshot.defaults();
+    }
+
+    /**
+     * Every configured runtime supervisor node
+     */
+    public Set<String> getRuntimeAddresses() {
+        Set<String> addresses = new LinkedHashSet<>();
+        runtimes.values().forEach(addresses::addAll);
+        return addresses;
+    }
+
+    public long getRevision() {
+        return snapshot.revision();
+    }
+
+    /**
+     * Calls the listener with every version of every primitive now, and again after each snapshot
+     * is swapped in, on the thread that swapped it
+     */
+    public synchronized void addReloadListener(Consumer<Collection<PluginSpec>> listener) {
+        reloadListeners.add(listener);
+        listener.accept(snapshot.allVersions());
+    }
+
+    /**
+     * Replaces the plugins reported by one runtime supervisor. Primitives declared in the
+     * registry file take precedence over discovered ones.
+     */
+    public synchronized void updateDiscovered(String runtimeAddress, List<PluginRef> plugins) {
+        List<PluginRef> previous = discovered.put(runtimeAddress, List.copyOf(plugins));
+        if (!plugins.equals(previous)) {
+            rebuild(declared);
+        }
+    }
+
+    /**
+     * Re-reads the registry file and swaps in the result; a file that fails to parse is rejected
+     */
+    public synchronized void reloadFile() {
+        try {
+            loadedModified = registryFile.isFile() ? registryFile.lastModified() : 0;
+            rebuild(parse(registryFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read plugin registry " + registryFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.dispose();
+        }
+    }
+
+    private synchronized void reloadIfModified() {
+        try {
+            if (registryFile.lastModified() != loadedModified) {
+                log.info("Plugin registry {} changed, reloading", registryFile);
+                reloadFile();
+            }
+        } catch (Exception e) {
+            log.error("Failed to reload plugin registry {}, keeping revision {}", registryFile, getRevision(), e);
+        }
+    }
+
+    private static PluginRegistryFile parse(Resource resource) throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader().load("plugin-registry", resource);
+        return new Binder(ConfigurationPropertySources.from(sources))
+            .bind(ConfigurationPropertyName.EMPTY, Bindable.of(PluginRegistryFile.class))
+            .orElseGet(PluginRegistryFile::new);
+    }
+
+    /**
+     * Builds the next snapshot from a registry file and the discovered plugins. Nothing is
+     * swapped in if the file has an invalid entry.
+     */
+    private synchronized void rebuild(PluginRegistryFile file) {
+        Map<String, Map<String, PluginSpec>> versions = new LinkedHashMap<>();
+        Map<String, String> defaults = new LinkedHashMap<>();
+        Map<String, JsonSchema> compiled = new HashMap<>();
+
+        // The version flagged default wins; otherwise the last listed version
+        for (PluginRegistryFile.Entry entry : file.getPlugins()) {
+            PluginSpec spec = toSpec(entry, compiled);
+            versions.computeIfAbsent(spec.getId(), id -> new LinkedHashMap<>()).put(spec.getVersion(), spec);
+            defaults.put(spec.getId(), spec.getVersion());
+        }
+        for (PluginRegistryFile.Entry entry : file.getPlugins()) {
+            if (entry.isDefault()) {
+                defaults.put(entry.getId(), entry.getVersion());
+            }
+        }
+
+        // A discovered plugin is served by every node that reported it
+        Map<String, PluginRef> discoveredRefs = new LinkedHashMap<>();
+        Map<String, List<String>> discoveredNodes = new LinkedHashMap<>();
+        discovered.forEach((runtimeAddress, plugins) -> {
+            for (PluginRef ref : plugins) {
+                if (!versions.containsKey(ref.getId())) {
+                    discoveredRefs.putIfAbsent(ref.getId(), ref);
+                    discoveredNodes.computeIfAbsent(ref.getId(), id -> new ArrayList<>()).add(runtimeAddress);
+                }
+            }
+        });
+        discoveredRefs.forEach((id, ref) -> {
+            String version = ref.getVersion().isEmpty() ? "latest" : ref.getVersion();
+            PluginSpec spec = new PluginSpec(id, version, ref.getLanguage(), discoveredNodes.get(id), ref.getEntrypoint(),
+                CachePolicy.NONE, Isolation.CONTAINER);
+            versions.put(id, Map.of(version, spec));
+            defaults.put(id, version);
+            log.debug("Discovered plugin {} on {}", id, discoveredNodes.get(id));
+        });
+
+        Map<String, Primitive> primitives = new LinkedHashMap<>();
+        versions.forEach((id, byVersion) ->
+            primitives.put(id, new Primitive(byVersion.get(defaults.get(id)), Collections.unmodifiableMap(byVersion))));
+
+        declared = file;
+        schemas = compiled;
+        snapshot = new Snapshot(file.getRevision(), Collections.unmodifiableMap(primitives),
+            primitives.values().stream().map(Primitive::defaultVersion).toList());
+        log.info("Registered {} plugins (registry revision {})", primitives.size(), file.getRevision());
+
+        for (Consumer<Collection<PluginSpec>> listener : reloadListeners) {
+            try {
+                listener.accept(snapshot.allVersions());
+            } catch (RuntimeException e) {
+                log.error("Plugin registry reload listener failed", e);
+            }
+        }
+    }
+
+    private PluginSpec toSpec(PluginRegistryFile.Entry entry, Map<String, JsonSchema> compiled) {
+        if (entry.getId() == null || entry.getVersion() == null || entry.getLanguage() == null) {
+            throw new IllegalArgumentException("Registry entry needs id, version and language: " + entry.getId());
+        }
+        String runtime = entry.getRuntime() != null ? entry.getRuntime() : entry.getLanguage();
+        List<String> runtimeAddresses = entry.getRuntimeAddress() != null
+            ? addresses(entry.getRuntimeAddress())
+            : runtimes.get(runtime);
+        if (runtimeAddresses == null || runtimeAddresses.isEmpty()) {
+            throw new IllegalArgumentException("Unknown runtime " + runtime + " for " + entry.getId());
+        }
+
+        PluginRegistryFile.Cache cache = entry.getCache();
+        CachePolicy cachePolicy = cache.isDeterministic()
+            ? CachePolicy.deterministic(cache.getTtl(), cache.getMaxEntries())
+            : CachePolicy.NONE;
+        Isolation isolation = "java".equals(entry.getLanguage()) && inProcessPlugins.contains(entry.getId())
+            ? Isolation.INPROCESS
+            : Isolation.CONTAINER;
+
+        return new PluginSpec(entry.getId(), entry.getVersion(), entry.getLanguage(), runtimeAddresses,
+            entry.getEntrypoint() != null ? entry.getEntrypoint() : "", cachePolicy, isolation, entry.getTimeout(),
+            schema(entry, "input-schema", entry.getInputSchema(), compiled),
+            schema(entry, "output-schema", entry.getOutputSchema(), compiled));
+    }
+
+    /**
+     * The compiled schema, reused from the previous load if its text has not changed; null if unset
+     */
+    private JsonSchema schema(PluginRegistryFile.Entry entry, String key, String source, Map<String, JsonSchema> compiled) {
+        if (source == null || source.isBlank()) {
+            return null;
+        }
+        try {
+            return compiled.computeIfAbsent(source, text -> {
+                JsonSchema previous = schemas.get(text);
+                return previous != null ? previous : JsonSchema.compile(text);
+            });
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + key + " for " + entry.getId() + "@" + entry.getVersion()
+                + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<String> addresses(String commaSeparated) {
+        List<String> addresses = new ArrayList<>();
+        for (String address : commaSeparated.split(",")) {
+            if (!address.isBlank()) {
+                addresses.add(address.trim());
+            }
+        }
+        return List.copyOf(addresses);
+    }
+
+    /**
+     * Immutable view of the registry; replaced as a whole, never modified
+     */
+    private record Snapshot(long revision, Map<String, Primitive> primitives, List<PluginSpec> defaults) {
+
+        PluginSpec find(String primitiveId) {
+            Primitive primitive = primitives.get(primitiveId);
+            return primitive == null ? null : primitive.defaultVersion();
+        }
+
+        List<PluginSpec> allVersions() {
+            return primitives.values().stream().flatMap(p -> p.versions().values().stream()).toList();
+        }
+    }
+
+    private record Primitive(PluginSpec defaultVersion, Map<String, PluginSpec> versions) {
+    }
+
     public static class PluginSpec {
         private final String id;
         private final String version;
         private final String language;
-        private final String runtimeAddress;
+        private final List<String> runtimeAddresses;
         private final String entrypoint;
+        private final CachePolicy cachePolicy;
+        private final Isolation isolation;
+        private final Duration timeout;
+        private final JsonSchema inputSchema;
+        private final JsonSchema outputSchema;
         
         public PluginSpec(String id, String version, String language, String runtimeAddress, String entrypoint) {
+            this(id, version, language, runtimeAddress, entrypoint, CachePolicy.NONE);
+        }
+        
+        public PluginSpec(String id, String version, String language, String runtimeAddress, String entrypoint,
+                          CachePolicy cachePolicy) {
+            this(id, version, language, runtimeAddress, entrypoint, cachePolicy, Isolation.CONTAINER);
+        }
+        
+        public PluginSpec(String id, String version, String language, String runtimeAddress, String entrypoint,
+                          CachePolicy cachePolicy, Isolation isolation) {
+            this(id, version, language, List.of(runtimeAddress), entrypoint, cachePolicy, isolation);
+        }
+        
+        public PluginSpec(String id, String version, String language, List<String> runtimeAddresses, String entrypoint,
+                          CachePolicy cachePolicy, Isolation isolation) {
+            this(id, version, language, runtimeAddresses, entrypoint, cachePolicy, isolation, null);
+        }
+        
+        /**
+         * @param runtimeAddresses runtime supervisor nodes that can serve the plugin, see {@link SupervisorRouter}
+         * @param timeout deadline for calls that do not carry one; null for the gateway default
+         */
+        public PluginSpec(String id, String version, String language, List<String> runtimeAddresses, String entrypoint,
+                          CachePolicy cachePolicy, Isolation isolation, Duration timeout) {
+            this(id, version, language, runtimeAddresses, entrypoint, cachePolicy, isolation, timeout, null, null);
+        }
+        
+        /**
+         * @param inputSchema schema the arguments must satisfy; null for any JSON
+         * @param outputSchema schema the plugin's output must satisfy; null for any JSON
+         */
+        public PluginSpec(String id, String version, String language, List<String> runtimeAddresses, String entrypoint,
+                          CachePolicy cachePolicy, Isolation isolation, Duration timeout,
+                          JsonSchema inputSchema, JsonSchema outputSchema) {
             this.id = id;
             this.version = version;
             this.language = language;
-            this.runtimeAddress = runtimeAddress;
+            this.runtimeAddresses = List.copyOf(runtimeAddresses);
             this.entrypoint = entrypoint;
+            this.cachePolicy = cachePolicy;
+            this.isolation = isolation;
+            this.timeout = timeout;
+            this.inputSchema = inputSchema;
+            this.outputSchema = outputSchema;
         }
         
         public String getId() {
@@ -89,13 +410,111 @@ public class PluginRegistry {
             return language;
         }
         
+        /**
+         * The first of the plugin's runtime supervisor nodes
+         */
         public String getRuntimeAddress() {
-            return runtimeAddress;
+            return runtimeAddresses.get(0);
+        }
+        
+        public List<String> getRuntimeAddresses() {
+            return runtimeAddresses;
         }
         
         public String getEntrypoint() {
             return entrypoint;
         }
+        
+        public CachePolicy getCachePolicy() {
+            return cachePolicy;
+        }
+        
+        public Isolation getIsolation() {
+            return isolation;
+        }
+        
+        /**
+         * Deadline for calls that do not carry one; null for the gateway default
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+        
+        /**
+         * Compiled schema of the arguments; null if the registry declares none
+         */
+        public JsonSchema getInputSchema() {
+            return inputSchema;
+        }
+        
+        /**
+         * Compiled schema of the plugin's output; null if the registry declares none
+         */
+        public JsonSchema getOutputSchema() {
+            return outputSchema;
+        }
     }
-}
 
+    /**
+     * Where a plugin's code runs
+     */
+    public enum Isolation {
+        /** Worker containers managed by the plugin's runtime supervisor */
+        CONTAINER,
+        /** Trusted Java plugin loaded into the gateway in its own classloader */
+        INPROCESS
+    }
+
+    /**
+     * Whether a primitive's results may be reused for identical arguments, and for how long
+     */
+    public static class CachePolicy {
+        public static final CachePolicy NONE = new CachePolicy(false, Duration.ZERO, 0);
+
+        private final boolean deterministic;
+        private final Duration ttl;
+        private final long maxEntries;
+        
+        public CachePolicy(boolean deterministic, Duration ttl, long maxEntries) {
+            this.deterministic = deterministic;
+            this.ttl = ttl;
+            this.maxEntries = maxEntries;
+        }
+        
+        /**
+         * Policy for a pure function of its arguments
+         */
+        public static CachePolicy deterministic(Duration ttl, long maxEntries) {
+            return new CachePolicy(true, ttl, maxEntries);
+        }
+        
+        public boolean isDeterministic() {
+            return deterministic;
+        }
+        
+        public Duration getTtl() {
+            return ttl;
+        }
+        
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public boolean isCacheable() {
+            return deterministic && maxEntries > 0 && !ttl.isZero();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CachePolicy other
+                && deterministic == other.deterministic
+                && maxEntries == other.maxEntries
+                && ttl.equals(other.ttl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(deterministic, ttl, maxEntries);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.webex.agentic.gateway.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contents of the plugin registry file ({@code gateway.registry.file}), bound from YAML.
+ * Each entry is one version of a primitive.
+ */
+public class PluginRegistryFile {
+
+    private long revision;
+    private List<Entry> plugins = new ArrayList<>();
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public List<Entry> getPlugins() {
+        return plugins;
+    }
+
+    public void setPlugins(List<Entry> plugins) {
+        this.plugins = plugins;
+    }
+
+    public static class Entry {
+        private String id;
+        private String version;
+        private String language;
+        private String runtime;
+        private String runtimeAddress;
+        private String entrypoint;
+        private boolean defaultVersion;
+        private Duration timeout;
+        private Cache cache = new Cache();
+        private String inputSchema;
+        private String outputSchema;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public void setLanguage(String language) {
+            this.language = language;
+        }
+
+        /**
+         * Key into {@code gateway.runtimes}; defaults to the language
+         */
+        public String getRuntime() {
+            return runtime;
+        }
+
+        public void setRuntime(String runtime) {
+            this.runtime = runtime;
+        }
+
+        /**
+         * Supervisor address for this version only, overriding {@link #getRuntime()}
+         */
+        public String getRuntimeAddress() {
+            return runtimeAddress;
+        }
+
+        public void setRuntimeAddress(String runtimeAddress) {
+            this.runtimeAddress = runtimeAddress;
+        }
+
+        public String getEntrypoint() {
+            return entrypoint;
+        }
+
+        public void setEntrypoint(String entrypoint) {
+            this.entrypoint = entrypoint;
+        }
+
+        /**
+         * Bound from {@code default: true}
+         */
+        public boolean isDefault() {
+            return defaultVersion;
+        }
+
+        public void setDefault(boolean defaultVersion) {
+            this.defaultVersion = defaultVersion;
+        }
+
+        /**
+         * Deadline for calls of this version that do not carry one; unset for {@code gateway.deadlines.default}
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        /**
+         * JSON Schema the arguments must satisfy; unset to pass any JSON through
+         */
+        public String getInputSchema() {
+            return inputSchema;
+        }
+
+        public void setInputSchema(String inputSchema) {
+            this.inputSchema = inputSchema;
+        }
+
+        /**
+         * JSON Schema the plugin's output must satisfy; unset to pass any JSON through
+         */
+        public String getOutputSchema() {
+            return outputSchema;
+        }
+
+        public void setOutputSchema(String outputSchema) {
+            this.outputSchema = outputSchema;
+        }
+    }
+
+    public static class Cache {
+        private boolean deterministic;
+        private Duration ttl = Duration.ofMinutes(10);
+        private long maxEntries = 10_000;
+
+        public boolean isDeterministic() {
+            return deterministic;
+        }
+
+        public void setDeterministic(boolean deterministic) {
+            this.deterministic = deterministic;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.webex.agentic.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webex.agentic.common.model.CalculationRequest;
+import com.webex.agentic.common.model.CalculationResult;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results of deterministic primitives, keyed by {@link InvocationKey}.
+ *
+ * Each cacheable primitive version gets its own bounded Caffeine cache sized and expired by that
+ * version's {@link PluginRegistry.CachePolicy}. Hit, miss, eviction and size metrics are published
+ * as {@code cache.*} meters tagged with the primitive and version.
+ *
+ * When the registry is reloaded, caches whose version was removed or whose policy changed are
+ * invalidated and dropped; the next invocation builds a new one from the current policy.
+ */
+@Service
+public class ResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultCache.class);
+
+    private final Map<Version, Entry> caches = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private volatile Map<Version, PluginRegistry.CachePolicy> policies = Map.of();
+
+    public ResultCache(
+            PluginRegistry pluginRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.result-cache.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        pluginRegistry.addReloadListener(this::registryReloaded);
+    }
+
+    /**
+     * @return the cached result, or null on a miss or if the plugin is not cacheable
+     */
+    public CalculationResult get(PluginRegistry.PluginSpec spec, CalculationRequest request) {
+        Cache<InvocationKey, CalculationResult> cache = cacheFor(spec);
+        return cache == null ? null : cache.getIfPresent(InvocationKey.of(spec, request));
+    }
+
+    public void put(PluginRegistry.PluginSpec spec, CalculationRequest request, CalculationResult result) {
+        Cache<InvocationKey, CalculationResult> cache = cacheFor(spec);
+        if (cache != null) {
+            cache.put(InvocationKey.of(spec, request), result);
+        }
+    }
+
+    /**
+     * Drops every cached result of the primitive version
+     */
+    private synchronized void invalidate(String primitiveId, String version) {
+        Version key = new Version(primitiveId, version);
+        Entry entry = caches.remove(key);
+        if (entry != null) {
+            drop(key, entry);
+        }
+    }
+
+    /**
+     * Invalidates the caches of versions that were removed or whose policy changed
+     */
+    private synchronized void registryReloaded(Collection<PluginRegistry.PluginSpec> specs) {
+        Map<Version, PluginRegistry.CachePolicy> current = new HashMap<>();
+        for (PluginRegistry.PluginSpec spec : specs) {
+            current.put(new Version(spec.getId(), spec.getVersion()), spec.getCachePolicy());
+        }
+        policies = current;
+        caches.forEach((key, entry) -> {
+            if (!entry.policy().equals(current.get(key))) {
+                log.info("Cache policy of {}@{} changed, dropping its results", key.id(), key.version());
+                invalidate(key.id(), key.version());
+            }
+        });
+    }
+
+    private Cache<InvocationKey, CalculationResult> cacheFor(PluginRegistry.PluginSpec spec) {
+        PluginRegistry.CachePolicy policy = spec.getCachePolicy();
+        if (!enabled || !policy.isCacheable()) {
+            return null;
+        }
+        Version key = new Version(spec.getId(), spec.getVersion());
+        Entry entry = caches.get(key);
+        if (entry == null) {
+            entry = create(key, policy);
+        }
+        // A spec from a snapshot replaced since the request started neither reads nor fills the cache
+        return entry != null && entry.policy().equals(policy) ? entry.cache() : null;
+    }
+
+    private synchronized Entry create(Version key, PluginRegistry.CachePolicy policy) {
+        Entry existing = caches.get(key);
+        if (existing != null || !policy.equals(policies.get(key))) {
+            return existing;
+        }
+        log.info("Creating result cache for {}@{} (ttl: {}, max entries: {})",
+            key.id(), key.version(), policy.getTtl(), policy.getMaxEntries());
+        Cache<InvocationKey, CalculationResult> cache = Caffeine.newBuilder()
+            .maximumSize(policy.getMaxEntries())
+            .expireAfterWrite(policy.getTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "results", key.tags());
+        Entry entry = new Entry(policy, cache);
+        caches.put(key, entry);
+        return entry;
+    }
+
+    private void drop(Version key, Entry entry) {
+        entry.cache().invalidateAll();
+        // The meters hold the dropped cache; a rebuilt one registers its own
+        for (Meter meter : meterRegistry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (id.getName().startsWith("cache.") && "results".equals(id.getTag("cache"))
+                    && key.id().equals(id.getTag("primitive")) && key.version().equals(id.getTag("version"))) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    private record Version(String id, String version) {
+
+        Tags tags() {
+            return Tags.of("primitive", id, "version", version);
+        }
+    }
+
+    private record Entry(PluginRegistry.CachePolicy policy, Cache<InvocationKey, CalculationResult> cache) {
+    }
+}
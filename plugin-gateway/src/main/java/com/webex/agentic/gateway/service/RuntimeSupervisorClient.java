@@ -1,71 +1,158 @@
 package com.webex.agentic.gateway.service;
 
 import com.google.protobuf.Duration;
+import com.webex.agentic.gateway.grpc.ChannelFactory;
+import com.webex.agentic.gateway.grpc.Deadlines;
+import com.webex.agentic.gateway.grpc.ReactiveCalls;
 import com.webex.agentic.proto.supervisor.*;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Client to communicate with Runtime Supervisor services
+ * Reactive client to communicate with Runtime Supervisor services
  */
 @Service
 public class RuntimeSupervisorClient {
-    
+
     private static final Logger log = LoggerFactory.getLogger(RuntimeSupervisorClient.class);
 
+    /**
+     * Queue wait allowed for allocations made without a request deadline
+     */
+    private static final java.time.Duration DEFAULT_SOFT_DEADLINE = java.time.Duration.ofSeconds(30);
+
     private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
-    private final Map<String, RuntimeSupervisorGrpc.RuntimeSupervisorBlockingStub> stubs = new ConcurrentHashMap<>();
+    private final Map<String, RuntimeSupervisorGrpc.RuntimeSupervisorStub> stubs = new ConcurrentHashMap<>();
+    private final ChannelFactory channelFactory;
+    private final boolean forceFreshProcess;
+
+    public RuntimeSupervisorClient(
+            ChannelFactory channelFactory,
+            @Value("${gateway.workers.force-fresh-process:false}") boolean forceFreshProcess) {
+        this.channelFactory = channelFactory;
+        this.forceFreshProcess = forceFreshProcess;
+    }
 
-    public AllocateWorkerResponse allocateWorker(String runtimeAddress, PluginRef plugin, Context context) {
-        RuntimeSupervisorGrpc.RuntimeSupervisorBlockingStub stub = getStub(runtimeAddress);
-        
-        AllocateWorkerRequest request = AllocateWorkerRequest.newBuilder()
+    public Mono<EnsurePluginResponse> ensurePlugin(String runtimeAddress, PluginRef plugin, boolean prewarm) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
+        EnsurePluginRequest request = EnsurePluginRequest.newBuilder()
             .setPlugin(plugin)
-            .setCtx(context)
-            .setSoftDeadline(Duration.newBuilder().setSeconds(30).build())
-            .setForceFreshProcess(true)  // POC: always create fresh worker
+            .setPrewarm(prewarm)
             .build();
 
-        log.info("Allocating worker for plugin {} at {}", plugin.getId(), runtimeAddress);
-        return stub.allocateWorker(request);
+        return ReactiveCalls.<EnsurePluginResponse>unary(obs -> stub.ensurePlugin(request, obs))
+            .doOnSubscribe(s -> log.info("Ensuring plugin {} at {} (prewarm: {})", plugin.getId(), runtimeAddress, prewarm));
+    }
+
+    public Mono<ListPluginsResponse> listPlugins(String runtimeAddress) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
+        return ReactiveCalls.<ListPluginsResponse>unary(obs -> stub.listPlugins(ListPluginsRequest.getDefaultInstance(), obs))
+            .doOnSubscribe(s -> log.debug("Listing plugins at {}", runtimeAddress));
     }
 
-    public ReleaseWorkerResponse releaseWorker(String runtimeAddress, String workerId, String reason) {
-        RuntimeSupervisorGrpc.RuntimeSupervisorBlockingStub stub = getStub(runtimeAddress);
-        
+    public Mono<AllocateWorkerResponse> allocateWorker(String runtimeAddress, PluginRef plugin, Context context) {
+        return allocateWorker(runtimeAddress, plugin, context, null);
+    }
+
+    /**
+     * The call carries the request's deadline (see {@link Deadlines}), and the time left until it
+     * as the soft_deadline the supervisor may keep the allocation queued for.
+     *
+     * @param leaseTtl how long the handle may be kept across invocations without renewal; null for one invocation
+     */
+    public Mono<AllocateWorkerResponse> allocateWorker(String runtimeAddress, PluginRef plugin, Context context,
+                                                       java.time.Duration leaseTtl) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
+        return Mono.deferContextual(ctx -> {
+                java.time.Duration remaining = Deadlines.remaining(ctx);
+                AllocateWorkerRequest.Builder request = AllocateWorkerRequest.newBuilder()
+                    .setPlugin(plugin)
+                    .setCtx(context)
+                    .setSoftDeadline(toProto(remaining != null ? remaining : DEFAULT_SOFT_DEADLINE))
+                    .setForceFreshProcess(forceFreshProcess);
+                if (leaseTtl != null) {
+                    request.setLeaseTtl(toProto(leaseTtl));
+                }
+                return ReactiveCalls.<AllocateWorkerResponse>unary(obs ->
+                    Deadlines.bind(stub, ctx).allocateWorker(request.build(), obs));
+            })
+            .doOnSubscribe(s -> log.info("Allocating worker for plugin {} at {}", plugin.getId(), runtimeAddress));
+    }
+
+    public Mono<ReleaseWorkerResponse> releaseWorker(String runtimeAddress, String workerId, String reason) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
         ReleaseWorkerRequest request = ReleaseWorkerRequest.newBuilder()
             .setWorkerId(workerId)
             .setReason(reason)
             .build();
 
-        log.info("Releasing worker {} at {} (reason: {})", workerId, runtimeAddress, reason);
-        return stub.releaseWorker(request);
+        return ReactiveCalls.<ReleaseWorkerResponse>unary(obs -> stub.releaseWorker(request, obs))
+            .doOnSubscribe(s -> log.info("Releasing worker {} at {} (reason: {})", workerId, runtimeAddress, reason));
+    }
+
+    public Mono<RenewLeaseResponse> renewLease(String runtimeAddress, String workerId) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
+        RenewLeaseRequest request = RenewLeaseRequest.newBuilder()
+            .setWorkerId(workerId)
+            .build();
+
+        return ReactiveCalls.<RenewLeaseResponse>unary(obs -> stub.renewLease(request, obs))
+            .doOnSubscribe(s -> log.debug("Renewing lease on {} at {}", workerId, runtimeAddress));
     }
 
-    public HealthResponse health(String runtimeAddress) {
-        RuntimeSupervisorGrpc.RuntimeSupervisorBlockingStub stub = getStub(runtimeAddress);
-        return stub.health(HealthRequest.newBuilder().build());
+    public Flux<WorkerEvent> watchWorker(String runtimeAddress, String workerId) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+
+        WatchWorkerRequest request = WatchWorkerRequest.newBuilder()
+            .setWorkerId(workerId)
+            .build();
+
+        return Flux.deferContextual(ctx -> ReactiveCalls.<WorkerEvent>serverStreaming(obs ->
+                Deadlines.bind(stub, ctx).watchWorker(request, obs)))
+            .doOnSubscribe(s -> log.info("Watching worker {} at {}", workerId, runtimeAddress));
+    }
+
+    public Mono<HealthResponse> health(String runtimeAddress) {
+        RuntimeSupervisorGrpc.RuntimeSupervisorStub stub = getStub(runtimeAddress);
+        HealthRequest request = HealthRequest.newBuilder().build();
+        return ReactiveCalls.unary(obs -> stub.health(request, obs));
     }
 
-    private RuntimeSupervisorGrpc.RuntimeSupervisorBlockingStub getStub(String address) {
+    private static Duration toProto(java.time.Duration duration) {
+        return Duration.newBuilder()
+            .setSeconds(duration.getSeconds())
+            .setNanos(duration.getNano())
+            .build();
+    }
+
+    private RuntimeSupervisorGrpc.RuntimeSupervisorStub getStub(String address) {
         return stubs.computeIfAbsent(address, addr -> {
             ManagedChannel channel = getChannel(addr);
-            return RuntimeSupervisorGrpc.newBlockingStub(channel);
+            return RuntimeSupervisorGrpc.newStub(channel);
         });
     }
 
     private ManagedChannel getChannel(String address) {
         return channels.computeIfAbsent(address, addr -> {
             log.info("Creating gRPC channel to {}", addr);
-            return ManagedChannelBuilder.forTarget(addr)
+            // Callbacks only complete Reactor sinks, so they can run directly on the transport threads
+            return channelFactory.forTarget(addr)
                 .usePlaintext()
+                .directExecutor()
                 .build();
         });
     }
@@ -81,4 +168,3 @@ public class RuntimeSupervisorClient {
         });
     }
 }
-
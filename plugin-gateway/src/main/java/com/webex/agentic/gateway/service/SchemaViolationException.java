@@ -0,0 +1,20 @@
+package com.webex.agentic.gateway.service;
+
+import java.util.List;
+
+/**
+ * Arguments rejected by the gateway because they are not JSON or violate the primitive's input schema
+ */
+public class SchemaViolationException extends RuntimeException {
+
+    private final List<String> violations;
+
+    public SchemaViolationException(String primitiveId, List<String> violations) {
+        super("Invalid arguments for " + primitiveId + ": " + String.join("; ", violations));
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<String> getViolations() {
+        return violations;
+    }
+}
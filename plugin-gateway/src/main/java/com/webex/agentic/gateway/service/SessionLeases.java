@@ -0,0 +1,219 @@
+package com.webex.agentic.gateway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Workers held across the invocations of one agent session, keyed by session id, plugin and
+ * plugin version, since versions may run on different supervisors.
+ *
+ * The first call of a session allocates a worker with a lease_ttl; later calls reuse its handle
+ * without AllocateWorker or ReleaseWorker, renewing it via RenewLease once half the ttl has passed.
+ * Leases left unused for their ttl are released here, or reclaimed by the supervisor if the
+ * gateway goes away first.
+ */
+@Service
+public class SessionLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionLeases.class);
+
+    private final Map<Key, Entry> leases = new ConcurrentHashMap<>();
+    private final RuntimeSupervisorClient runtimeClient;
+    private final InvocationMetrics metrics;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Disposable sweeper;
+
+    public SessionLeases(
+            RuntimeSupervisorClient runtimeClient,
+            InvocationMetrics metrics,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.session-leases.enabled:true}") boolean enabled,
+            @Value("${gateway.session-leases.ttl:5m}") Duration ttl) {
+        this.runtimeClient = runtimeClient;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.ttl = ttl;
+
+        Gauge.builder("gateway.session-leases.active", leases, Map::size)
+            .description("Workers held for agent sessions")
+            .register(meterRegistry);
+        long sweepMillis = Math.max(1000, ttl.toMillis() / 4);
+        this.sweeper = Schedulers.single().schedulePeriodically(
+            this::releaseExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The lease the session holds on the plugin, allocated with {@code allocator} on first use
+     * or once the previous one expired or was lost. Concurrent first calls share one allocation.
+     *
+     * @param allocator allocates a worker and waits for it to be ready, given the lease_ttl to request
+     */
+    public Mono<Lease> acquire(String sessionId, PluginRegistry.PluginSpec spec, Function<Duration, Mono<Lease>> allocator) {
+        Key key = Key.of(sessionId, spec);
+        return Mono.defer(() -> {
+            Entry entry = leases.computeIfAbsent(key, k -> {
+                log.info("Allocating session lease for {} on {} {}", sessionId, spec.getId(), spec.getVersion());
+                return new Entry(k, allocator.apply(ttl));
+            });
+            return entry.lease.flatMap(lease -> {
+                long now = System.nanoTime();
+                if (lease.isExpired(now)) {
+                    drop(key, entry, "lease_expired");
+                    return acquire(sessionId, spec, allocator);
+                }
+                if (!lease.isDueForRenewal(now)) {
+                    return Mono.just(lease);
+                }
+                return renew(spec, key, entry, lease)
+                    .switchIfEmpty(Mono.defer(() -> acquire(sessionId, spec, allocator)));
+            });
+        });
+    }
+
+    /**
+     * Gives up a lease whose worker can no longer be used, releasing it on the supervisor
+     */
+    public void invalidate(String sessionId, PluginRegistry.PluginSpec spec, Lease lease) {
+        Key key = Key.of(sessionId, spec);
+        Entry entry = leases.get(key);
+        if (entry != null && entry.granted == lease) {
+            drop(key, entry, "execution_failed");
+        }
+    }
+
+    public int size() {
+        return leases.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Held workers are reclaimed by their supervisors once the leases expire
+        sweeper.dispose();
+    }
+
+    private Mono<Lease> renew(PluginRegistry.PluginSpec spec, Key key, Entry entry, Lease lease) {
+        return metrics.time(InvocationMetrics.RENEW, spec, runtimeClient.renewLease(lease.runtimeAddress(), lease.handleId()))
+            .flatMap(response -> {
+                if (!response.getRenewed()) {
+                    log.info("Lease on {} for {} was reclaimed", lease.handleId(), key.sessionId());
+                    leases.remove(key, entry);
+                    return Mono.<Lease>empty();
+                }
+                lease.renewed(System.nanoTime());
+                return Mono.just(lease);
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to renew lease on {}: {}", lease.handleId(), e.getMessage());
+                drop(key, entry, "renew_failed");
+                return Mono.empty();
+            });
+    }
+
+    private void releaseExpired() {
+        long now = System.nanoTime();
+        leases.forEach((key, entry) -> {
+            Lease lease = entry.granted;
+            if (lease != null && lease.isExpired(now)) {
+                log.debug("Session lease on {} for {} expired", lease.handleId(), key.sessionId());
+                drop(key, entry, "lease_expired");
+            }
+        });
+    }
+
+    private void drop(Key key, Entry entry, String reason) {
+        if (leases.remove(key, entry) && entry.granted != null) {
+            entry.granted.release().apply(reason).subscribe();
+        }
+    }
+
+    private record Key(String sessionId, String pluginId, String version) {
+
+        static Key of(String sessionId, PluginRegistry.PluginSpec spec) {
+            return new Key(sessionId, spec.getId(), spec.getVersion());
+        }
+    }
+
+    private final class Entry {
+        private final Mono<Lease> lease;
+        private volatile Lease granted;
+
+        Entry(Key key, Mono<Lease> allocation) {
+            // Failed allocations are not kept, so the next call of the session allocates again
+            this.lease = allocation
+                .doOnNext(l -> granted = l)
+                .doOnError(e -> leases.remove(key, this))
+                .cache();
+        }
+    }
+
+    /**
+     * A worker handle held for a session, valid for ttl after it was granted or last renewed
+     */
+    public static final class Lease {
+        private final String runtimeAddress;
+        private final String handleId;
+        private final String workerAddress;
+        private final Duration ttl;
+        private final Function<String, Mono<Void>> release;
+        private volatile long renewedAtNanos = System.nanoTime();
+
+        /**
+         * @param release releases the handle on the supervisor, given the release reason
+         */
+        public Lease(String runtimeAddress, String handleId, String workerAddress, Duration ttl,
+                     Function<String, Mono<Void>> release) {
+            this.runtimeAddress = runtimeAddress;
+            this.handleId = handleId;
+            this.workerAddress = workerAddress;
+            this.ttl = ttl;
+            this.release = release;
+        }
+
+        public String runtimeAddress() {
+            return runtimeAddress;
+        }
+
+        public String handleId() {
+            return handleId;
+        }
+
+        public String workerAddress() {
+            return workerAddress;
+        }
+
+        Function<String, Mono<Void>> release() {
+            return release;
+        }
+
+        void renewed(long nowNanos) {
+            renewedAtNanos = nowNanos;
+        }
+
+        boolean isDueForRenewal(long nowNanos) {
+            return nowNanos - renewedAtNanos >= ttl.toNanos() / 2;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - renewedAtNanos >= ttl.toNanos();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.webex.agentic.gateway.service;
+
+import com.google.protobuf.Struct;
+import com.webex.agentic.proto.supervisor.HealthResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the runtime supervisor node for each allocation among the nodes serving a plugin.
+ *
+ * Every node is polled with Health every health-interval. Nodes reporting DOWN or DEGRADED, or
+ * failing the Health call, are ejected until they report OK again. Of the remaining nodes two
+ * are sampled at random and the less loaded one is chosen (power of two choices). A node's load
+ * is its reported workers plus queue depth plus the allocations this gateway has in flight on it,
+ * relative to its max_workers; a node that answered REJECTED counts as full for rejection-cooldown.
+ */
+@Service
+public class SupervisorRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(SupervisorRouter.class);
+
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final RuntimeSupervisorClient runtimeClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration healthInterval;
+    private final Duration rejectionCooldown;
+    private final Disposable poller;
+
+    public SupervisorRouter(
+            RuntimeSupervisorClient runtimeClient,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.routing.health-interval:2s}") Duration healthInterval,
+            @Value("${gateway.routing.rejection-cooldown:5s}") Duration rejectionCooldown) {
+        this.runtimeClient = runtimeClient;
+        this.meterRegistry = meterRegistry;
+        this.healthInterval = healthInterval;
+        this.rejectionCooldown = rejectionCooldown;
+
+        this.poller = Flux.interval(healthInterval)
+            .concatMap(tick -> Flux.fromIterable(nodes.values()).flatMap(this::poll))
+            .subscribe();
+    }
+
+    /**
+     * Chooses a node for an allocation
+     *
+     * @param addresses nodes serving the plugin
+     * @param exclude   nodes already tried for this allocation
+     * @return the chosen node, or null if every node was excluded
+     */
+    public String select(List<String> addresses, Set<String> exclude) {
+        if (addresses.size() == 1) {
+            return exclude.contains(addresses.get(0)) ? null : addresses.get(0);
+        }
+
+        List<Node> candidates = new ArrayList<>(addresses.size());
+        List<Node> ejected = new ArrayList<>();
+        for (String address : addresses) {
+            if (!exclude.contains(address)) {
+                Node node = node(address);
+                (node.healthy ? candidates : ejected).add(node);
+            }
+        }
+        // With every node ejected, keep trying them rather than failing outright
+        if (candidates.isEmpty()) {
+            candidates = ejected;
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0).address;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Node a = candidates.get(first);
+        Node b = candidates.get(second);
+        long now = System.nanoTime();
+        return a.load(now, rejectionCooldown) <= b.load(now, rejectionCooldown) ? a.address : b.address;
+    }
+
+    /**
+     * Counts {@code allocation} as in flight on the node until it terminates
+     */
+    public <T> Mono<T> track(String address, Mono<T> allocation) {
+        return Mono.defer(() -> {
+            Node node = node(address);
+            node.inFlight.incrementAndGet();
+            return allocation.doFinally(signal -> node.inFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Records that the node answered REJECTED, steering allocations away from it for a while
+     */
+    public void rejected(String address) {
+        node(address).rejectedAtNanos = System.nanoTime();
+        meterRegistry.counter("gateway.routing.rejected", "supervisor", address).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.dispose();
+    }
+
+    private Node node(String address) {
+        return nodes.computeIfAbsent(address, Node::new);
+    }
+
+    private Mono<Void> poll(Node node) {
+        return runtimeClient.health(node.address)
+            .timeout(healthInterval)
+            .doOnNext(response -> node.update(response))
+            .doOnError(e -> node.fail(e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private static final class Node {
+        private final String address;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile double workers;
+        private volatile double queueDepth;
+        private volatile double maxWorkers;
+        private volatile long rejectedAtNanos = Long.MIN_VALUE;
+
+        Node(String address) {
+            this.address = address;
+        }
+
+        double load(long nowNanos, Duration rejectionCooldown) {
+            if (rejectedAtNanos != Long.MIN_VALUE && nowNanos - rejectedAtNanos < rejectionCooldown.toNanos()) {
+                return Double.MAX_VALUE;
+            }
+            // Without a reported capacity nodes are compared on absolute counts
+            double capacity = maxWorkers > 0 ? maxWorkers : 1;
+            return (workers + queueDepth + inFlight.get()) / capacity;
+        }
+
+        void update(HealthResponse response) {
+            double totalWorkers = 0;
+            double totalQueue = 0;
+            double totalMax = 0;
+            for (com.google.protobuf.Value runtime : response.getRuntimes().getFieldsMap().values()) {
+                Struct stats = runtime.getStructValue();
+                totalWorkers += number(stats, "workers");
+                totalQueue += number(stats, "queue_depth");
+                totalMax += number(stats, "max_workers");
+            }
+            workers = totalWorkers;
+            queueDepth = totalQueue;
+            maxWorkers = totalMax;
+
+            boolean nowHealthy = response.getStatus() == HealthResponse.Status.OK;
+            if (nowHealthy != healthy) {
+                log.info("Supervisor {} {} ({})", address, nowHealthy ? "back in rotation" : "ejected", response.getStatus());
+            }
+            healthy = nowHealthy;
+        }
+
+        void fail(String reason) {
+            if (healthy) {
+                log.warn("Supervisor {} ejected: health check failed: {}", address, reason);
+            }
+            healthy = false;
+        }
+
+        private static double number(Struct stats, String field) {
+            com.google.protobuf.Value value = stats.getFieldsMap().get(field);
+            return value == null ? 0 : value.getNumberValue();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.gateway.grpc.ChannelFactory;
+import com.webex.agentic.proto.ppp.InitResponse;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache of gRPC channels to plugin workers, keyed by worker address.
+ *
+ * Channels are reused across invocations on the same worker, evicted when the
+ * supervisor reports the worker gone, and closed after sitting unused for idle-timeout.
+ * Each channel also keeps the worker's Init answer, so Init runs once per worker and tenant.
+ */
+@Service
+public class WorkerChannelPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerChannelPool.class);
+
+    private final Map<String, Entry> channels = new ConcurrentHashMap<>();
+    private final ChannelFactory channelFactory;
+    private final Duration keepAliveTime;
+    private final Duration keepAliveTimeout;
+    private final Duration idleTimeout;
+    private final Disposable idleSweeper;
+
+    public WorkerChannelPool(
+            ChannelFactory channelFactory,
+            @Value("${gateway.worker-channels.keepalive-time:30s}") Duration keepAliveTime,
+            @Value("${gateway.worker-channels.keepalive-timeout:10s}") Duration keepAliveTimeout,
+            @Value("${gateway.worker-channels.idle-timeout:5m}") Duration idleTimeout) {
+        this.channelFactory = channelFactory;
+        this.keepAliveTime = keepAliveTime;
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.idleTimeout = idleTimeout;
+
+        long sweepMillis = Math.max(1000, idleTimeout.toMillis() / 2);
+        this.idleSweeper = Schedulers.single().schedulePeriodically(
+            this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leases the channel for a worker address, creating it on first use.
+     * The lease must be closed when the call on it has finished.
+     */
+    public Lease acquire(String address) {
+        while (true) {
+            Entry entry = channels.computeIfAbsent(address, this::createEntry);
+            if (entry.retain()) {
+                return new Lease(entry);
+            }
+            // Entry was evicted concurrently; drop it and create a fresh one
+            channels.remove(address, entry);
+        }
+    }
+
+    /**
+     * Drops the channel for a worker that no longer exists. In-flight
+     * calls keep their lease and the channel is closed once they finish.
+     */
+    public void evict(String address) {
+        Entry entry = channels.remove(address);
+        if (entry != null) {
+            log.info("Evicting channel to {}", address);
+            entry.evict();
+        }
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        idleSweeper.dispose();
+        channels.keySet().forEach(this::evict);
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        channels.forEach((address, entry) -> {
+            if (entry.isIdleSince(cutoff)) {
+                log.debug("Closing idle channel to {}", address);
+                channels.remove(address, entry);
+                entry.evict();
+            }
+        });
+    }
+
+    private Entry createEntry(String address) {
+        log.info("Creating gRPC channel to worker {}", address);
+        ManagedChannel channel = channelFactory.forTarget(address)
+            .usePlaintext()
+            .directExecutor()
+            .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveWithoutCalls(true)
+            .idleTimeout(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        return new Entry(channel);
+    }
+
+    private static final class Entry {
+        private final ManagedChannel channel;
+        private final Map<String, Mono<InitResponse>> handshakes = new ConcurrentHashMap<>();
+        private int inUse;
+        private boolean evicted;
+        private long lastUsedNanos = System.nanoTime();
+
+        Entry(ManagedChannel channel) {
+            this.channel = channel;
+        }
+
+        synchronized boolean retain() {
+            if (evicted) {
+                return false;
+            }
+            inUse++;
+            return true;
+        }
+
+        synchronized void release() {
+            inUse--;
+            lastUsedNanos = System.nanoTime();
+            if (evicted && inUse == 0) {
+                channel.shutdown();
+            }
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            if (inUse == 0) {
+                channel.shutdown();
+            }
+        }
+
+        synchronized boolean isIdleSince(long cutoffNanos) {
+            return inUse == 0 && lastUsedNanos - cutoffNanos < 0;
+        }
+    }
+
+    /**
+     * A channel borrowed from the pool for the duration of one call
+     */
+    public static final class Lease implements AutoCloseable {
+        private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public ManagedChannel channel() {
+            return entry.channel;
+        }
+
+        /**
+         * Completes once the channel is connected; fails with UNAVAILABLE if the worker
+         * cannot be reached or the channel is shut down
+         */
+        public Mono<Void> connect() {
+            return Mono.create(sink -> awaitReady(entry.channel, sink));
+        }
+
+        /**
+         * The worker's Init answer for the tenant. {@code init} runs on the first call for the
+         * tenant; later calls share its answer until the channel is evicted with its worker.
+         * Failed or rejected Inits are not kept, so the next call runs Init again.
+         */
+        public Mono<InitResponse> handshake(String tenantId, Supplier<Mono<InitResponse>> init) {
+            return entry.handshakes.computeIfAbsent(tenantId, t -> {
+                // The Init is bound to its first caller's deadline and context, so a failed one is
+                // dropped and the next call builds its own
+                AtomicReference<Mono<InitResponse>> self = new AtomicReference<>();
+                Mono<InitResponse> shared = init.get()
+                    .doOnSuccess(response -> {
+                        if (response == null || !response.getOk()) {
+                            entry.handshakes.remove(t, self.get());
+                        }
+                    })
+                    .doOnError(e -> entry.handshakes.remove(t, self.get()))
+                    .cache(response -> response.getOk() ? FOREVER : Duration.ZERO,
+                        e -> Duration.ZERO,
+                        () -> Duration.ZERO);
+                self.set(shared);
+                return shared;
+            });
+        }
+
+        private static void awaitReady(ManagedChannel channel, MonoSink<Void> sink) {
+            ConnectivityState state = channel.getState(true);
+            switch (state) {
+                case READY -> sink.success();
+                case TRANSIENT_FAILURE, SHUTDOWN -> sink.error(Status.UNAVAILABLE
+                    .withDescription("Channel " + state)
+                    .asRuntimeException());
+                default -> channel.notifyWhenStateChanged(state, () -> awaitReady(channel, sink));
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                entry.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.common.model.CalculationRequest;
+import com.webex.agentic.common.model.CalculationResult;
+import com.webex.agentic.gateway.grpc.Deadlines;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightInvocationsTest {
+
+    private static final PluginRegistry.PluginSpec SPEC =
+        new PluginRegistry.PluginSpec("add", "1.0.0", "java", "localhost:9091", "Add");
+    private static final CalculationRequest REQUEST = new CalculationRequest(1, 2);
+
+    private final InFlightInvocations inFlight = new InFlightInvocations(new SimpleMeterRegistry(), true);
+    private final List<Sinks.One<CalculationResult>> invocations = new ArrayList<>();
+
+    private CompletableFuture<CalculationResult> call(Duration deadline) {
+        return inFlight.join(SPEC, REQUEST, () -> {
+                Sinks.One<CalculationResult> sink = Sinks.one();
+                invocations.add(sink);
+                return sink.asMono();
+            })
+            .contextWrite(Deadlines.within(deadline))
+            .toFuture();
+    }
+
+    private static CalculationResult result(double value) {
+        return new CalculationResult(value, "add", 1, 2);
+    }
+
+    @Test
+    void joinsAnInvocationThatOutlastsItsDeadline() throws Exception {
+        CompletableFuture<CalculationResult> first = call(Duration.ofSeconds(30));
+        CompletableFuture<CalculationResult> joined = call(Duration.ofSeconds(5));
+
+        assertThat(invocations).hasSize(1);
+        invocations.get(0).tryEmitValue(result(3));
+        assertThat(first.get().getResult()).isEqualTo(3);
+        assertThat(joined.get().getResult()).isEqualTo(3);
+        assertThat(inFlight.size()).isZero();
+    }
+
+    @Test
+    void startsItsOwnInvocationWhenTheOneInFlightEndsSooner() throws Exception {
+        CompletableFuture<CalculationResult> first = call(Duration.ofSeconds(5));
+        CompletableFuture<CalculationResult> later = call(Duration.ofSeconds(30));
+        CompletableFuture<CalculationResult> joinedLater = call(Duration.ofSeconds(20));
+
+        assertThat(invocations).hasSize(2);
+        invocations.get(1).tryEmitValue(result(4));
+        assertThat(later.get().getResult()).isEqualTo(4);
+        assertThat(joinedLater.get().getResult()).isEqualTo(4);
+        assertThat(first).isNotDone();
+
+        // The replaced invocation still completes for the call that started it
+        invocations.get(0).tryEmitValue(result(3));
+        assertThat(first.get().getResult()).isEqualTo(3);
+        assertThat(inFlight.size()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package com.webex.agentic.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonSchemaTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static List<String> validate(String schema, String document) throws Exception {
+        JsonNode node = MAPPER.readTree(document);
+        return JsonSchema.compile(schema).validate(node);
+    }
+
+    @Test
+    void enumComparesNumbersByValue() throws Exception {
+        String schema = "{\"enum\": [1, \"one\", [2, {\"x\": 3}]]}";
+
+        assertThat(validate(schema, "1")).isEmpty();
+        assertThat(validate(schema, "1.0")).isEmpty();
+        assertThat(validate(schema, "\"one\"")).isEmpty();
+        assertThat(validate(schema, "[2.0, {\"x\": 3.00}]")).isEmpty();
+        assertThat(validate(schema, "1.5")).containsExactly("$: must be one of [1,\"one\",[2,{\"x\":3}]]");
+        assertThat(validate(schema, "\"1\"")).hasSize(1);
+        assertThat(validate(schema, "[2, {\"x\": 3, \"y\": 4}]")).hasSize(1);
+    }
+
+    @Test
+    void constComparesNumbersByValue() throws Exception {
+        assertThat(validate("{\"const\": 2.50}", "2.5")).isEmpty();
+        assertThat(validate("{\"const\": 0}", "-0.0")).isEmpty();
+        assertThat(validate("{\"const\": 100000000000000000000}", "1e20")).isEmpty();
+        assertThat(validate("{\"const\": 2}", "3")).containsExactly("$: must be 2");
+        assertThat(validate("{\"const\": true}", "1")).hasSize(1);
+        assertThat(validate("{\"const\": null}", "null")).isEmpty();
+    }
+
+    @Test
+    void enumAndConstApplyToProperties() throws Exception {
+        String schema = """
+            {"type": "object",
+             "properties": {"mode": {"enum": ["fast", "exact"]}, "scale": {"const": 10}},
+             "required": ["mode"]}
+            """;
+
+        assertThat(validate(schema, "{\"mode\": \"fast\", \"scale\": 10.0}")).isEmpty();
+        assertThat(validate(schema, "{\"mode\": \"slow\", \"scale\": 11}"))
+            .containsExactly("$.mode: must be one of [\"fast\",\"exact\"]", "$.scale: must be 10");
+        assertThat(validate(schema, "{}")).containsExactly("$.mode: is required");
+    }
+
+    @Test
+    void rejectsEnumThatIsNotAnArray() {
+        assertThatThrownBy(() -> JsonSchema.compile("{\"enum\": 1}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("#/enum");
+    }
+}
@@ -0,0 +1,70 @@
+package com.webex.agentic.gateway.service;
+
+import com.webex.agentic.proto.ppp.InitResponse;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkerChannelPoolTest {
+
+    private static final InitResponse OK = InitResponse.newBuilder().setOk(true).build();
+    private static final InitResponse REJECTED = InitResponse.newBuilder().setOk(false).setMessage("busy").build();
+
+    private final WorkerChannelPool pool = new WorkerChannelPool(InProcessChannelBuilder::forName,
+        Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofMinutes(5));
+    private final AtomicInteger inits = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void failedInitIsRetriedWithTheNextCallersInit() {
+        try (WorkerChannelPool.Lease lease = pool.acquire("worker-1")) {
+            assertThatThrownBy(() -> lease.handshake("tenant", () -> init(
+                    Mono.error(Status.DEADLINE_EXCEEDED.asRuntimeException()))).block())
+                .isInstanceOf(StatusRuntimeException.class);
+
+            assertThat(lease.handshake("tenant", () -> init(Mono.just(OK))).block()).isEqualTo(OK);
+            assertThat(inits).hasValue(2);
+        }
+    }
+
+    @Test
+    void rejectedInitIsRetriedWithTheNextCallersInit() {
+        try (WorkerChannelPool.Lease lease = pool.acquire("worker-1")) {
+            assertThat(lease.handshake("tenant", () -> init(Mono.just(REJECTED))).block()).isEqualTo(REJECTED);
+
+            assertThat(lease.handshake("tenant", () -> init(Mono.just(OK))).block()).isEqualTo(OK);
+            assertThat(inits).hasValue(2);
+        }
+    }
+
+    @Test
+    void successfulInitIsSharedAcrossCallsAndLeases() {
+        try (WorkerChannelPool.Lease lease = pool.acquire("worker-1")) {
+            assertThat(lease.handshake("tenant", () -> init(Mono.just(OK))).block()).isEqualTo(OK);
+        }
+        try (WorkerChannelPool.Lease lease = pool.acquire("worker-1")) {
+            assertThat(lease.handshake("tenant", () -> init(Mono.error(new AssertionError("Init ran twice")))).block())
+                .isEqualTo(OK);
+            assertThat(lease.handshake("other-tenant", () -> init(Mono.just(OK))).block()).isEqualTo(OK);
+        }
+        assertThat(inits).hasValue(2);
+    }
+
+    private Mono<InitResponse> init(Mono<InitResponse> response) {
+        inits.incrementAndGet();
+        return response;
+    }
+}
@@ -1,12 +1,28 @@
 package com.webex.agentic.plugin.add;
 
+import com.webex.agentic.common.concurrent.VirtualThreads;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class AddPluginApplication {
     public static void main(String[] args) {
         SpringApplication.run(AddPluginApplication.class, args);
     }
+
+    /**
+     * Virtual handler threads with {@code spring.threads.virtual.enabled} on Java 21
+     */
+    @Bean
+    public GrpcServerConfigurer grpcServerExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return serverBuilder -> {
+            if (virtualThreads && VirtualThreads.isSupported()) {
+                serverBuilder.executor(VirtualThreads.newPerTaskExecutor("grpc-handler", true));
+            }
+        };
+    }
 }
 
@@ -1,37 +1,58 @@
 package com.webex.agentic.plugin.multiply.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
 import com.webex.agentic.common.model.CalculationRequest;
 import com.webex.agentic.common.model.CalculationResult;
+import com.webex.agentic.proto.calculation.CalculationArgs;
+import com.webex.agentic.proto.calculation.CalculationOutput;
 import com.webex.agentic.proto.ppp.*;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import net.devh.boot.grpc.server.service.GrpcService;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Multiply plugin - implements Platform-Plugin Protocol (PPP)
  */
 @GrpcService
 public class MultiplyPluginService extends ToolPluginGrpc.ToolPluginImplBase {
-    
+
+    /**
+     * Invoke calls served at once, advertised as caps["max_concurrency"]; each is a short
+     * computation on a gRPC executor thread
+     */
+    static final int MAX_CONCURRENCY = 64;
+
     private static final Logger log = LoggerFactory.getLogger(MultiplyPluginService.class);
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Cancel flags of the Invoke calls in progress, by request_id
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
     @Override
     public void init(InitRequest request, StreamObserver<InitResponse> responseObserver) {
         log.info("Plugin initialized for tenant: {}", request.getCtx().getTenantId());
-        
+
         InitResponse response = InitResponse.newBuilder()
             .setOk(true)
             .setMessage("Multiply plugin ready")
             .putCaps("operation", "multiply")
+            .putCaps("invoke_batch", "true")
+            .putCaps("cancel", "true")
+            .putCaps("typed_payloads", CalculationArgs.getDescriptor().getFullName())
+            .putCaps("max_concurrency", String.valueOf(MAX_CONCURRENCY))
             .build();
-        
+
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
@@ -39,81 +60,176 @@ public class MultiplyPluginService extends ToolPluginGrpc.ToolPluginImplBase {
     @Override
     public void invoke(InvokeRequest request, StreamObserver<PluginMessage> responseObserver) {
         log.info("Plugin invoked for primitive: {}", request.getPrimitive());
-        
+
+        // Set by Cancel, or when the call is cancelled or passes its deadline
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ((ServerCallStreamObserver<PluginMessage>) responseObserver).setOnCancelHandler(() -> cancelled.set(true));
+        running.put(request.getRequestId(), cancelled);
         try {
-            // Parse input
-            String jsonInput = request.getArguments().getValue().toStringUtf8();
-            CalculationRequest calcRequest = objectMapper.readValue(jsonInput, CalculationRequest.class);
-            
-            log.info("Multiplying {} * {}", calcRequest.getOperand1(), calcRequest.getOperand2());
-
-            // Send progress update
-            PluginMessage progressMsg = PluginMessage.newBuilder()
-                .setProgress(Progress.newBuilder()
-                    .setRequestId(request.getRequestId())
-                    .setTaskId(request.getRequestId())
-                    .setPercent(50.0)
-                    .setMessage("Performing multiplication...")
-                    .setAt(Timestamp.newBuilder()
-                        .setSeconds(System.currentTimeMillis() / 1000)
-                        .build())
-                    .build())
-                .build();
-            responseObserver.onNext(progressMsg);
-
-            // Perform calculation
-            double result = calcRequest.getOperand1() * calcRequest.getOperand2();
-            
-            CalculationResult calcResult = new CalculationResult(
-                result,
-                "multiply",
-                calcRequest.getOperand1(),
-                calcRequest.getOperand2()
-            );
-
-            // Send completion
-            String jsonOutput = objectMapper.writeValueAsString(calcResult);
-            PluginMessage completedMsg = PluginMessage.newBuilder()
-                .setCompleted(Completed.newBuilder()
-                    .setRequestId(request.getRequestId())
-                    .setTaskId(request.getRequestId())
-                    .setOutput(Json.newBuilder()
-                        .setValue(ByteString.copyFromUtf8(jsonOutput))
-                        .build())
+            respond(request, responseObserver, cancelled);
+        } finally {
+            running.remove(request.getRequestId(), cancelled);
+        }
+    }
+
+    private void respond(InvokeRequest request, StreamObserver<PluginMessage> responseObserver, AtomicBoolean cancelled) {
+        // Send progress update
+        PluginMessage progressMsg = PluginMessage.newBuilder()
+            .setProgress(Progress.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setTaskId(request.getRequestId())
+                .setPercent(50.0)
+                .setMessage("Performing multiplication...")
+                .setAt(Timestamp.newBuilder()
+                    .setSeconds(System.currentTimeMillis() / 1000)
                     .build())
-                .build();
-            
-            responseObserver.onNext(completedMsg);
+                .build())
+            .build();
+        responseObserver.onNext(progressMsg);
+
+        // Messages to a call that is gone are dropped
+        if (cancelled.get()) {
+            log.info("Invocation {} cancelled before it ran", request.getRequestId());
+            responseObserver.onNext(cancelledMessage(request));
             responseObserver.onCompleted();
-            
-            log.info("Multiplication completed: {}", result);
-            
+            return;
+        }
+
+        responseObserver.onNext(execute(request));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<InvokeRequest> invokeBatch(StreamObserver<PluginMessage> responseObserver) {
+        log.info("Batch invocation stream opened");
+
+        ServerCallStreamObserver<PluginMessage> call = (ServerCallStreamObserver<PluginMessage>) responseObserver;
+        call.setOnCancelHandler(() -> log.info("Batch invocation stream cancelled"));
+        return new StreamObserver<>() {
+            private int count;
+
+            @Override
+            public void onNext(InvokeRequest request) {
+                // Requests still buffered once the caller went away are not worth running
+                if (call.isCancelled()) {
+                    return;
+                }
+                count++;
+                responseObserver.onNext(execute(request));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Batch invocation stream aborted after {} requests: {}", count, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                log.info("Batch invocation stream completed ({} requests)", count);
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void health(Empty request, StreamObserver<InitResponse> responseObserver) {
+        InitResponse response = InitResponse.newBuilder()
+            .setOk(true)
+            .setMessage("Healthy")
+            .putCaps("max_concurrency", String.valueOf(MAX_CONCURRENCY))
+            .build();
+
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void cancel(CancelRequest request, StreamObserver<CancelResponse> responseObserver) {
+        AtomicBoolean cancelled = running.get(request.getRequestId());
+        if (cancelled != null) {
+            log.info("Cancelling invocation {} ({})", request.getRequestId(), request.getReason());
+            cancelled.set(true);
+        }
+
+        responseObserver.onNext(CancelResponse.newBuilder()
+            .setCancelled(cancelled != null)
+            .build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Performs one multiplication and returns its terminal Completed or Failed message.
+     * Typed arguments are answered with typed output; JSON arguments with JSON.
+     */
+    private PluginMessage execute(InvokeRequest request) {
+        try {
+            Completed.Builder completed = Completed.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setTaskId(request.getRequestId());
+
+            if (request.hasTypedArguments()) {
+                CalculationArgs args = request.getTypedArguments().unpack(CalculationArgs.class);
+                double result = compute(args.getOperand1(), args.getOperand2());
+
+                completed.setTypedOutput(Any.pack(CalculationOutput.newBuilder()
+                    .setResult(result)
+                    .setOperation("multiply")
+                    .setOperand1(args.getOperand1())
+                    .setOperand2(args.getOperand2())
+                    .build()));
+            } else {
+                // Parse input
+                String jsonInput = request.getArguments().getValue().toStringUtf8();
+                CalculationRequest calcRequest = objectMapper.readValue(jsonInput, CalculationRequest.class);
+
+                double result = compute(calcRequest.getOperand1(), calcRequest.getOperand2());
+
+                CalculationResult calcResult = new CalculationResult(
+                    result,
+                    "multiply",
+                    calcRequest.getOperand1(),
+                    calcRequest.getOperand2()
+                );
+
+                String jsonOutput = objectMapper.writeValueAsString(calcResult);
+                completed.setOutput(Json.newBuilder()
+                    .setValue(ByteString.copyFromUtf8(jsonOutput))
+                    .build());
+            }
+
+            return PluginMessage.newBuilder()
+                .setCompleted(completed)
+                .build();
+
         } catch (Exception e) {
             log.error("Error during plugin execution", e);
-            
-            PluginMessage failedMsg = PluginMessage.newBuilder()
+
+            return PluginMessage.newBuilder()
                 .setFailed(Failed.newBuilder()
                     .setRequestId(request.getRequestId())
                     .setTaskId(request.getRequestId())
                     .setCode("EXECUTION_ERROR")
-                    .setMessage(e.getMessage())
+                    .setMessage(String.valueOf(e.getMessage()))
                     .build())
                 .build();
-            
-            responseObserver.onNext(failedMsg);
-            responseObserver.onCompleted();
         }
     }
 
-    @Override
-    public void health(Empty request, StreamObserver<InitResponse> responseObserver) {
-        InitResponse response = InitResponse.newBuilder()
-            .setOk(true)
-            .setMessage("Healthy")
+    private PluginMessage cancelledMessage(InvokeRequest request) {
+        return PluginMessage.newBuilder()
+            .setFailed(Failed.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setTaskId(request.getRequestId())
+                .setCode("CANCELLED")
+                .setMessage("Invocation cancelled")
+                .build())
             .build();
-        
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
     }
-}
 
+    private double compute(double operand1, double operand2) {
+        log.debug("Multiplying {} * {}", operand1, operand2);
+        double result = operand1 * operand2;
+        log.debug("Multiplication completed: {}", result);
+        return result;
+    }
+}
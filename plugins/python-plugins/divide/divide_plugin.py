@@ -5,6 +5,7 @@ Divide Plugin - implements Platform-Plugin Protocol (PPP)
 
 import json
 import logging
+import threading
 import time
 from concurrent import futures
 import sys
@@ -25,22 +26,46 @@ logging.basicConfig(
 )
 logger = logging.getLogger(__name__)
 
+# Invoke calls served at once, advertised as caps["max_concurrency"]; the server keeps two more
+# threads so Health and Cancel are answered while every slot is busy
+MAX_CONCURRENCY = 8
+
 
 class DividePlugin(ToolPluginServicer):
     
+    def __init__(self):
+        # Cancel events of the Invoke calls in progress, by request_id
+        self.running = {}
+        self.running_lock = threading.Lock()
+    
     def Init(self, request, context):
         logger.info(f"Plugin initialized for tenant: {request.ctx.tenant_id}")
         
         response = InitResponse()
         response.ok = True
         response.message = "Divide plugin ready"
+        response.caps["cancel"] = "true"
         response.caps["operation"] = "divide"
+        response.caps["max_concurrency"] = str(MAX_CONCURRENCY)
         
         return response
     
     def Invoke(self, request, context):
         logger.info(f"Plugin invoked for primitive: {request.primitive}")
         
+        cancelled = threading.Event()
+        # Set by Cancel, or when the call is cancelled or passes its deadline
+        context.add_callback(cancelled.set)
+        with self.running_lock:
+            self.running[request.request_id] = cancelled
+        try:
+            yield from self._invoke(request, cancelled)
+        finally:
+            with self.running_lock:
+                if self.running.get(request.request_id) is cancelled:
+                    del self.running[request.request_id]
+    
+    def _invoke(self, request, cancelled):
         try:
             # Parse input
             json_input = request.arguments.value.decode('utf-8')
@@ -64,6 +89,16 @@ class DividePlugin(ToolPluginServicer):
             progress_msg.progress.at.seconds = int(time.time())
             yield progress_msg
             
+            if cancelled.is_set():
+                logger.info(f"Invocation {request.request_id} cancelled before it ran")
+                cancelled_msg = PluginMessage()
+                cancelled_msg.failed.request_id = request.request_id
+                cancelled_msg.failed.task_id = request.request_id
+                cancelled_msg.failed.code = "CANCELLED"
+                cancelled_msg.failed.message = "Invocation cancelled"
+                yield cancelled_msg
+                return
+            
             # Perform calculation
             result = operand1 / operand2
             
@@ -94,15 +129,27 @@ class DividePlugin(ToolPluginServicer):
             failed_msg.failed.message = str(e)
             yield failed_msg
     
+    def Cancel(self, request, context):
+        with self.running_lock:
+            cancelled = self.running.get(request.request_id)
+        if cancelled is not None:
+            logger.info(f"Cancelling invocation {request.request_id} ({request.reason})")
+            cancelled.set()
+        
+        response = CancelResponse()
+        response.cancelled = cancelled is not None
+        return response
+    
     def Health(self, request, context):
         response = InitResponse()
         response.ok = True
         response.message = "Healthy"
+        response.caps["max_concurrency"] = str(MAX_CONCURRENCY)
         return response
 
 
 def serve():
-    server = grpc.server(futures.ThreadPoolExecutor(max_workers=10))
+    server = grpc.server(futures.ThreadPoolExecutor(max_workers=MAX_CONCURRENCY + 2))
     add_ToolPluginServicer_to_server(DividePlugin(), server)
     server.add_insecure_port('[::]:8080')
     
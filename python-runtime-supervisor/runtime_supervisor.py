@@ -6,6 +6,7 @@ Manages Python plugin worker lifecycle
 
 import logging
 import subprocess
+import threading
 import time
 from concurrent import futures
 from typing import Dict
@@ -17,9 +18,10 @@ import os
 # Add proto path
 sys.path.insert(0, os.path.join(os.path.dirname(__file__), '..', 'proto', 'target', 'generated-sources', 'protobuf', 'python'))
 
-from google.protobuf import timestamp_pb2, duration_pb2, struct_pb2
+from google.protobuf import timestamp_pb2, duration_pb2, struct_pb2, empty_pb2
 from runtime_supervisor_pb2 import *
 from runtime_supervisor_pb2_grpc import RuntimeSupervisorServicer, add_RuntimeSupervisorServicer_to_server
+from plugin_protocol_pb2_grpc import ToolPluginStub
 
 logging.basicConfig(
     level=logging.DEBUG,
@@ -27,6 +29,45 @@ logging.basicConfig(
 )
 logger = logging.getLogger(__name__)
 
+READINESS_INITIAL_BACKOFF_SECONDS = 0.05
+READINESS_MAX_BACKOFF_SECONDS = 1.0
+READINESS_TIMEOUT_SECONDS = 60
+DEFAULT_LEASE_TTL_SECONDS = 300   # handles not released or renewed within this are reclaimed
+MAX_LEASE_TTL_SECONDS = 1800      # cap on AllocateWorkerRequest.lease_ttl
+LEASE_REAP_INTERVAL_SECONDS = 5
+STATS_TIMEOUT_SECONDS = 1         # bound on reading a container's cgroup at release
+TEARDOWN_THREADS = 4              # containers stopped concurrently, off the ReleaseWorker path
+ORPHAN_SWEEP_INTERVAL_SECONDS = 30
+
+# Worker containers are labelled with their supervisor, so ones left over from an earlier run can
+# be found and removed. Supervisors sharing a docker daemon must set distinct SUPERVISOR_OWNERs.
+OWNER_LABEL = "com.webex.agentic.supervisor"
+SUPERVISOR_OWNER = os.environ.get("SUPERVISOR_OWNER", "python-runtime-supervisor")
+
+# Container cgroup files read for resource accounting: v2 first, v1 as a fallback
+CGROUP_CPU_STAT = "/sys/fs/cgroup/cpu.stat"
+CGROUP_MEMORY_PEAK = "/sys/fs/cgroup/memory.peak"
+CGROUP_CPUACCT_USAGE = "/sys/fs/cgroup/cpuacct/cpuacct.usage"
+CGROUP_MEMORY_MAX_USAGE = "/sys/fs/cgroup/memory/memory.max_usage_in_bytes"
+
+# Worker image per plugin; PLUGIN_IMAGES="plugin_id=image,..." replaces the defaults
+DEFAULT_PLUGIN_IMAGES = {
+    "subtract_numbers": "python-plugin-subtract:latest",
+    "divide_numbers": "python-plugin-divide:latest",
+}
+
+
+def load_plugin_images() -> Dict[str, str]:
+    configured = os.environ.get("PLUGIN_IMAGES", "").strip()
+    if not configured:
+        return dict(DEFAULT_PLUGIN_IMAGES)
+    images = {}
+    for entry in configured.split(","):
+        plugin_id, _, image = entry.partition("=")
+        if plugin_id.strip() and image.strip():
+            images[plugin_id.strip()] = image.strip()
+    return images
+
 
 class WorkerProcess:
     def __init__(self, worker_id: str, plugin_id: str, port: int, container_name: str):
@@ -34,12 +75,33 @@ class WorkerProcess:
         self.plugin_id = plugin_id
         self.port = port
         self.container_name = container_name
+        self.lease_ttl = DEFAULT_LEASE_TTL_SECONDS
+        self.lease_expires_at = time.monotonic() + self.lease_ttl
+        self.allocated_at = time.monotonic()
+
+    def renew_lease(self):
+        self.lease_expires_at = time.monotonic() + self.lease_ttl
 
 
 class PythonRuntimeSupervisor(RuntimeSupervisorServicer):
     def __init__(self):
         self.workers: Dict[str, WorkerProcess] = {}
         self.port_counter = 20000
+        self.plugin_images = load_plugin_images()
+        # Per plugin totals reported by Health: invocations, cpu_ms, rss_max, launch_failures
+        self.plugin_stats: Dict[str, Dict[str, float]] = {}
+        self.stats_lock = threading.Lock()
+        # Containers started but not registered in workers yet, and ones being stopped
+        self.launching = set()
+        self.stopping = set()
+        self.teardown = futures.ThreadPoolExecutor(max_workers=TEARDOWN_THREADS, thread_name_prefix="worker-teardown")
+        # Worker names restart with the port counter; clear the previous run's containers first
+        try:
+            self._remove_orphans()
+        except Exception as e:
+            logger.error(f"Error removing orphaned workers: {e}")
+        threading.Thread(target=self._reap_leases, name="lease-reaper", daemon=True).start()
+        threading.Thread(target=self._reap_orphans, name="orphan-reaper", daemon=True).start()
 
     def EnsurePlugin(self, request, context):
         logger.info(f"EnsurePlugin called for: {request.plugin.id}")
@@ -48,6 +110,12 @@ class PythonRuntimeSupervisor(RuntimeSupervisorServicer):
         response.state = EnsurePluginResponse.READY
         return response
 
+    def ListPlugins(self, request, context):
+        response = ListPluginsResponse()
+        for plugin_id in self.plugin_images:
+            response.plugins.add(id=plugin_id, language="python")
+        return response
+
     def AllocateWorker(self, request, context):
         logger.info(f"AllocateWorker called for: {request.plugin.id}")
         
@@ -67,20 +135,40 @@ class PythonRuntimeSupervisor(RuntimeSupervisorServicer):
                 "--network", "agentic-server-platform-poc_agentic-network",
                 "-e", f"WORKER_ID={worker_id}",
                 "-e", f"PLUGIN_ID={request.plugin.id}",
+                "--label", f"{OWNER_LABEL}={SUPERVISOR_OWNER}",
                 "-d",
                 "--rm",
                 image_name
             ]
             
             logger.info(f"Starting worker with command: {' '.join(cmd)}")
-            subprocess.run(cmd, check=True, capture_output=True, text=True)
+            self.launching.add(container_name)
+            try:
+                subprocess.run(cmd, check=True, capture_output=True, text=True)
+                
+                # Store worker info
+                worker = WorkerProcess(worker_id, request.plugin.id, port, container_name)
+                worker.lease_ttl = self._lease_ttl(request)
+                worker.renew_lease()
+                self.workers[worker_id] = worker
+            finally:
+                self.launching.discard(container_name)
             
-            # Wait for container to start and DNS to propagate
-            time.sleep(4)  # Increased to 4 seconds for DNS propagation
+            # Poll the worker's Health RPC until it is serving
+            try:
+                self._await_ready(worker_id, f"{container_name}:8080", context)
+            except Exception:
+                totals = self._plugin_stats(request.plugin.id)
+                with self.stats_lock:
+                    totals["launch_failures"] += 1
+                self.ReleaseWorker(ReleaseWorkerRequest(worker_id=worker_id, reason="not_ready"), context)
+                raise
             
-            # Store worker info
-            worker = WorkerProcess(worker_id, request.plugin.id, port, container_name)
-            self.workers[worker_id] = worker
+            # The caller gave up (cancelled, or past its deadline) while the worker started
+            if context is not None and not context.is_active():
+                logger.info(f"Allocation of {worker_id} abandoned by its caller")
+                self.ReleaseWorker(ReleaseWorkerRequest(worker_id=worker_id, reason="client_closed"), context)
+                return AllocateWorkerResponse()
             
             logger.info(f"Worker {worker_id} started on port {port}")
             
@@ -90,7 +178,9 @@ class PythonRuntimeSupervisor(RuntimeSupervisorServicer):
             
             response.handle.worker_id = worker_id
             response.handle.runtime = "python"
+            response.handle.address = f"{container_name}:8080"
             response.handle.not_before.seconds = int(time.time())
+            response.handle.ttl.FromNanoseconds(int(worker.lease_ttl * 1e9))
             
             return response
             
@@ -106,37 +196,179 @@ class PythonRuntimeSupervisor(RuntimeSupervisorServicer):
         logger.info(f"ReleaseWorker called for: {request.worker_id}")
         
         worker = self.workers.pop(request.worker_id, None)
+        response = ReleaseWorkerResponse()
         if worker:
-            try:
-                # Stop docker container
-                subprocess.run(
-                    ["docker", "stop", worker.container_name],
-                    check=True,
-                    capture_output=True,
-                    text=True,
-                    timeout=10
-                )
-                logger.info(f"Worker {request.worker_id} stopped")
-            except Exception as e:
-                logger.error(f"Error stopping worker {request.worker_id}: {e}")
+            # Measured before the container, and its cgroup, goes away
+            stats = {"duration_ms": (time.monotonic() - worker.allocated_at) * 1000, "invocations": 1}
+            stats.update(self._container_usage(worker.container_name))
+            response.stats.update(stats)
+            response.worker_id = worker.worker_id
+            if request.reason != "not_ready":
+                self._record_usage(worker.plugin_id, stats)
+            # The caller does not wait for the container to stop
+            self.stopping.add(worker.container_name)
+            self.teardown.submit(self._stop_container, worker.container_name)
         
-        response = ReleaseWorkerResponse()
+        response.terminated = True  # Python workers are never pooled
+        return response
+
+    def RenewLease(self, request, context):
+        response = RenewLeaseResponse()
+        worker = self.workers.get(request.worker_id)
+        if worker:
+            worker.renew_lease()
+            response.renewed = True
+            response.ttl.FromNanoseconds(int(worker.lease_ttl * 1e9))
+        else:
+            logger.info(f"Lease on {request.worker_id} not renewed: handle no longer held")
         return response
 
+    def WatchWorker(self, request, context):
+        # Workers are only handed out once ready, so a known worker is always READY
+        event = WorkerEvent()
+        event.worker_id = request.worker_id
+        event.at.seconds = int(time.time())
+        if request.worker_id in self.workers:
+            event.state = WorkerEvent.READY
+        else:
+            event.state = WorkerEvent.TERMINATED
+            event.reason = "Unknown worker"
+        yield event
+
     def Health(self, request, context):
         logger.debug("Health check called")
         
         response = HealthResponse()
         response.status = HealthResponse.OK
+        with self.stats_lock:
+            pools = {plugin_id: dict(stats) for plugin_id, stats in self.plugin_stats.items()}
+        for plugin_id, stats in pools.items():
+            stats["live"] = sum(1 for w in list(self.workers.values()) if w.plugin_id == plugin_id)
+        response.runtimes.update({"python": {"workers": len(self.workers), "queue_depth": 0, "pools": pools}})
         return response
 
+    def _await_ready(self, worker_id: str, address: str, context=None):
+        deadline = time.monotonic() + READINESS_TIMEOUT_SECONDS
+        backoff = READINESS_INITIAL_BACKOFF_SECONDS
+        start = time.monotonic()
+        
+        # Keep the channel's own reconnect backoff in line with the polling backoff
+        options = [
+            ("grpc.initial_reconnect_backoff_ms", int(READINESS_INITIAL_BACKOFF_SECONDS * 1000)),
+            ("grpc.min_reconnect_backoff_ms", int(READINESS_INITIAL_BACKOFF_SECONDS * 1000)),
+            ("grpc.max_reconnect_backoff_ms", int(READINESS_MAX_BACKOFF_SECONDS * 1000)),
+        ]
+        with grpc.insecure_channel(address, options=options) as channel:
+            stub = ToolPluginStub(channel)
+            while True:
+                try:
+                    if stub.Health(empty_pb2.Empty(), timeout=READINESS_MAX_BACKOFF_SECONDS).ok:
+                        logger.info(f"Worker {worker_id} ready after {(time.monotonic() - start) * 1000:.0f} ms")
+                        return
+                except grpc.RpcError as e:
+                    logger.debug(f"Worker {worker_id} not ready yet: {e.code()}")
+                
+                if context is not None and not context.is_active():
+                    raise RuntimeError(f"Caller of {worker_id} went away before it was ready")
+                if time.monotonic() + backoff > deadline:
+                    raise TimeoutError(f"Worker {worker_id} not ready within {READINESS_TIMEOUT_SECONDS}s")
+                time.sleep(backoff)
+                backoff = min(backoff * 2, READINESS_MAX_BACKOFF_SECONDS)
+
+    def _container_usage(self, container_name: str) -> Dict[str, float]:
+        """CPU time and peak memory of the container from its own cgroup; empty if unreadable"""
+        usage = {}
+        try:
+            result = subprocess.run(
+                ["docker", "exec", container_name, "grep", "-s", "-H", "",
+                 CGROUP_CPU_STAT, CGROUP_MEMORY_PEAK, CGROUP_CPUACCT_USAGE, CGROUP_MEMORY_MAX_USAGE],
+                capture_output=True, text=True, timeout=STATS_TIMEOUT_SECONDS)
+            for line in result.stdout.splitlines():
+                path, _, value = line.partition(":")
+                if path == CGROUP_CPU_STAT and value.startswith("usage_usec "):
+                    usage["cpu_ms"] = int(value.split()[1]) / 1000
+                elif path == CGROUP_CPUACCT_USAGE:
+                    usage["cpu_ms"] = int(value) / 1e6
+                elif path in (CGROUP_MEMORY_PEAK, CGROUP_MEMORY_MAX_USAGE):
+                    usage["rss_max"] = int(value)
+        except Exception as e:
+            logger.debug(f"Cannot read resource usage of {container_name}: {e}")
+        return usage
+
+    def _plugin_stats(self, plugin_id: str) -> Dict[str, float]:
+        with self.stats_lock:
+            return self.plugin_stats.setdefault(
+                plugin_id, {"invocations": 0, "cpu_ms": 0, "rss_max": 0, "launch_failures": 0})
+
+    def _record_usage(self, plugin_id: str, stats: Dict[str, float]):
+        totals = self._plugin_stats(plugin_id)
+        with self.stats_lock:
+            totals["invocations"] += 1
+            totals["cpu_ms"] += stats.get("cpu_ms", 0)
+            totals["rss_max"] = max(totals["rss_max"], stats.get("rss_max", 0))
+
+    def _lease_ttl(self, request) -> float:
+        requested = request.lease_ttl.ToNanoseconds() / 1e9 if request.HasField("lease_ttl") else 0
+        if requested <= 0:
+            return DEFAULT_LEASE_TTL_SECONDS
+        return min(requested, MAX_LEASE_TTL_SECONDS)
+
+    def _reap_leases(self):
+        # A caller that goes away without ReleaseWorker must not pin its container
+        while True:
+            time.sleep(LEASE_REAP_INTERVAL_SECONDS)
+            now = time.monotonic()
+            for worker_id, worker in list(self.workers.items()):
+                if worker.lease_expires_at <= now:
+                    logger.warning(f"Reclaiming {worker_id}: not released or renewed within {worker.lease_ttl:.0f}s")
+                    try:
+                        self.ReleaseWorker(ReleaseWorkerRequest(worker_id=worker_id, reason="lease_expired"), None)
+                    except Exception as e:
+                        logger.error(f"Error reclaiming {worker_id}: {e}")
+
+    def _stop_container(self, container_name: str):
+        try:
+            subprocess.run(
+                ["docker", "stop", container_name],
+                check=True,
+                capture_output=True,
+                text=True,
+                timeout=10
+            )
+            logger.info(f"Worker {container_name} stopped")
+        except Exception as e:
+            logger.error(f"Error stopping worker {container_name}: {e}")
+        finally:
+            self.stopping.discard(container_name)
+
+    def _reap_orphans(self):
+        while True:
+            time.sleep(ORPHAN_SWEEP_INTERVAL_SECONDS)
+            try:
+                self._remove_orphans()
+            except Exception as e:
+                logger.error(f"Error removing orphaned workers: {e}")
+
+    def _remove_orphans(self):
+        """Removes this supervisor's containers that no worker refers to, e.g. left over from an
+        earlier run or whose stop failed"""
+        result = subprocess.run(
+            ["docker", "ps", "-a", "--filter", f"label={OWNER_LABEL}={SUPERVISOR_OWNER}", "--format", "{{.Names}}"],
+            capture_output=True, text=True, timeout=30)
+        if result.returncode != 0:
+            logger.warning(f"Cannot list worker containers: {result.stderr.strip()}")
+            return
+        known = {w.container_name for w in list(self.workers.values())} | self.launching | self.stopping
+        for name in result.stdout.split():
+            if name not in known:
+                logger.warning(f"Removing orphaned worker {name}")
+                subprocess.run(["docker", "rm", "-f", name], capture_output=True, text=True, timeout=30)
+
     def _get_image_name(self, plugin_id: str) -> str:
-        if plugin_id == "subtract_numbers":
-            return "python-plugin-subtract:latest"
-        elif plugin_id == "divide_numbers":
-            return "python-plugin-divide:latest"
-        else:
+        image = self.plugin_images.get(plugin_id)
+        if image is None:
             raise ValueError(f"Unknown plugin: {plugin_id}")
+        return image
 
 
 def serve():